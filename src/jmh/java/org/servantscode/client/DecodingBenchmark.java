@@ -0,0 +1,68 @@
+package org.servantscode.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Search response decoding: the full Map<String, Object> tree every client used to build, the streaming reader
+ * and the typed DTO path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DecodingBenchmark {
+    @Param({"person", "family", "room"})
+    public String kind;
+
+    @Param({"10", "1000", "20000"})
+    public int results;
+
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        payload = Payloads.searchBytes(kind, results);
+    }
+
+    @Benchmark
+    public Map<String, Object> mapTree() {
+        return ClientJson.read(payload, ClientJson.MAP_TYPE);
+    }
+
+    @Benchmark
+    public int streaming(Blackhole hole) throws IOException {
+        return SearchResponseReader.forEachResult(new ByteArrayInputStream(payload), hole::consume);
+    }
+
+    @Benchmark
+    public int[] idsOnly() throws IOException {
+        return SearchResponseReader.readIntField(new ByteArrayInputStream(payload), "id");
+    }
+
+    @Benchmark
+    public Object typed() {
+        switch (kind) {
+            case "person": return ClientJson.read(payload, ClientJson.searchType(Person.class));
+            case "family": return ClientJson.read(payload, ClientJson.searchType(Family.class));
+            default: return ClientJson.read(payload, ClientJson.searchType(Room.class));
+        }
+    }
+}
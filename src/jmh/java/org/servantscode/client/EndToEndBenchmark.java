@@ -0,0 +1,72 @@
+package org.servantscode.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Whole client calls against the in-process stub: routing, resilience, headers, transport and decoding together.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+    @Param({"10", "1000"})
+    public int results;
+
+    private StubServer server;
+    private PersonServiceClient client;
+    private Map<String, Object> newPerson;
+
+    @Setup
+    public void setup() throws IOException {
+        server = new StubServer(results);
+        ApiClientFactory.instance().setExternalPrefix(server.getUrl());
+        ApiClientFactory.instance().session().getTokenManager().setToken(StubServer.TOKEN);
+        ApiClientFactory.instance().events().setSuccessSampleRate(0);
+        client = new PersonServiceClient();
+        newPerson = Payloads.person(7);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> getPersonById() {
+        client.evictAllCached();
+        return client.getPersonById(1);
+    }
+
+    @Benchmark
+    public Map<String, Object> getPersonByIdCached() {
+        return client.getPersonById(1);
+    }
+
+    @Benchmark
+    public SearchResult<Person> searchPeople() {
+        return client.searchPeople("Smith", 0, results);
+    }
+
+    @Benchmark
+    public Map<String, Object> createPerson() {
+        return client.createPerson(newPerson);
+    }
+}
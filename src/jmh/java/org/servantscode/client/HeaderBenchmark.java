@@ -0,0 +1,44 @@
+package org.servantscode.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.client.Invocation;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Per-request preparation: building the Invocation with its url, query parameters, auth and session headers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeaderBenchmark {
+    private PersonServiceClient client;
+    private Map<String, Object> params;
+
+    @Setup
+    public void setup() {
+        ApiClientFactory.instance().setExternalPrefix("http://localhost:1");
+        ApiClientFactory.instance().session().getTokenManager().setToken(StubServer.TOKEN);
+        client = new PersonServiceClient();
+        params = Collections.singletonMap("search", "Smith");
+    }
+
+    @Benchmark
+    public Invocation.Builder buildInvocation() {
+        return client.buildInvocation("http://localhost:1/rest/person", null, params);
+    }
+}
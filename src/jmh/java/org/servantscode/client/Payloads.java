@@ -0,0 +1,100 @@
+package org.servantscode.client;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/*
+ * Deterministic, realistic looking search payloads for the benchmarks.
+ */
+public class Payloads {
+    private static final String[] SURNAMES = {"Smith", "Johnson", "Garcia", "Nguyen", "O'Brien", "Kowalski", "Okafor", "Martinez"};
+    private static final String[] GIVEN = {"Mary", "John", "Maria", "Joseph", "Anne", "Peter", "Teresa", "Francis"};
+    private static final String[] ROOM_TYPES = {"CLASS", "MEETING", "SANCTUARY", "OFFICE"};
+
+    private Payloads() {}
+
+    public static Map<String, Object> person(int id) {
+        Random random = new Random(id);
+        Map<String, Object> person = new LinkedHashMap<>();
+        person.put("id", id);
+        person.put("name", GIVEN[random.nextInt(GIVEN.length)] + " " + SURNAMES[random.nextInt(SURNAMES.length)]);
+        person.put("male", random.nextBoolean());
+        person.put("birthdate", LocalDate.of(1940 + random.nextInt(70), 1 + random.nextInt(12), 1 + random.nextInt(28)).toString());
+        person.put("email", "person" + id + "@example.org");
+        person.put("familyId", id / 3 + 1);
+        person.put("headOfHousehold", id % 3 == 0);
+        person.put("memberSince", LocalDate.of(2000 + random.nextInt(19), 1, 1).toString());
+        person.put("inactive", false);
+        person.put("phoneNumbers", phones(random));
+        return person;
+    }
+
+    public static Map<String, Object> family(int id) {
+        Random random = new Random(id);
+        Map<String, Object> address = new LinkedHashMap<>();
+        address.put("street1", (100 + random.nextInt(9000)) + " Main St");
+        address.put("city", "Springfield");
+        address.put("state", "TX");
+        address.put("zip", 75000 + random.nextInt(999));
+
+        Map<String, Object> family = new LinkedHashMap<>();
+        family.put("id", id);
+        family.put("surname", SURNAMES[random.nextInt(SURNAMES.length)]);
+        family.put("homePhone", "555-" + (1000 + random.nextInt(9000)));
+        family.put("envelopeNumber", id + 1000);
+        family.put("address", address);
+        family.put("inactive", false);
+        return family;
+    }
+
+    public static Map<String, Object> room(int id) {
+        Random random = new Random(id);
+        Map<String, Object> room = new LinkedHashMap<>();
+        room.put("id", id);
+        room.put("name", "Room " + id);
+        room.put("type", ROOM_TYPES[random.nextInt(ROOM_TYPES.length)]);
+        room.put("capacity", 10 + random.nextInt(200));
+        return room;
+    }
+
+    public static Map<String, Object> search(String kind, int count) {
+        List<Map<String, Object>> results = new ArrayList<>(count);
+        for(int i = 1; i <= count; i++) {
+            switch (kind) {
+                case "person": results.add(person(i)); break;
+                case "family": results.add(family(i)); break;
+                case "room": results.add(room(i)); break;
+                default: throw new IllegalArgumentException("Unknown payload: " + kind);
+            }
+        }
+
+        Map<String, Object> search = new HashMap<>(4);
+        search.put("start", 0);
+        search.put("count", count);
+        search.put("totalResults", count);
+        search.put("results", results);
+        return search;
+    }
+
+    public static byte[] searchBytes(String kind, int count) {
+        return ClientJson.write(search(kind, count));
+    }
+
+    // ----- Private -----
+    private static List<Map<String, Object>> phones(Random random) {
+        List<Map<String, Object>> phones = new ArrayList<>(2);
+        for(int i = 0; i < 1 + random.nextInt(2); i++) {
+            Map<String, Object> phone = new LinkedHashMap<>();
+            phone.put("number", "555-" + (1000 + random.nextInt(9000)));
+            phone.put("type", i == 0? "CELL": "HOME");
+            phone.put("primary", i == 0);
+            phones.add(phone);
+        }
+        return phones;
+    }
+}
@@ -0,0 +1,60 @@
+package org.servantscode.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Request body encoding with the shared mapper, for the map form the clients take and the typed form.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    private Map<String, Object> personMap;
+    private Map<String, Object> familyMap;
+    private Person person;
+
+    @Setup
+    public void setup() {
+        personMap = Payloads.person(42);
+        familyMap = Payloads.family(42);
+
+        person = new Person();
+        person.setId(42);
+        person.setName("Mary Smith");
+        person.setBirthdate(LocalDate.of(1970, 5, 12));
+        person.setEmail("mary@example.org");
+        person.setFamilyId(7);
+        person.setMemberSince(LocalDate.of(2005, 1, 1));
+    }
+
+    @Benchmark
+    public byte[] personMap() {
+        return ClientJson.write(personMap);
+    }
+
+    @Benchmark
+    public byte[] familyMap() {
+        return ClientJson.write(familyMap);
+    }
+
+    @Benchmark
+    public byte[] typedPerson() {
+        return ClientJson.write(person);
+    }
+}
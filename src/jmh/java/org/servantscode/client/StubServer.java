@@ -0,0 +1,109 @@
+package org.servantscode.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * In-process stand-in for the services so end to end numbers measure the client, not the network. Canned bodies
+ * are encoded once up front; POSTs echo the request with an id added.
+ */
+public class StubServer implements AutoCloseable {
+    public static final String TOKEN = token();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final byte[] person;
+    private final byte[] search;
+
+    public StubServer(int searchResults) throws IOException {
+        person = ClientJson.write(Payloads.person(1));
+        search = Payloads.searchBytes("person", searchResults);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 128);
+        executor = Executors.newFixedThreadPool(4, r -> {
+            Thread t = new Thread(r, "stub-server");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // ----- Private -----
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            if("POST".equals(method) || "PUT".equals(method)) {
+                byte[] request = readAll(exchange.getRequestBody());
+                if(request.length > 0 && request[0] == '[') {
+                    // Batch writes: POSTs echo the rows, PUTs are acknowledged without a body like relationships.
+                    if("PUT".equals(method))
+                        exchange.sendResponseHeaders(204, -1);
+                    else
+                        respond(exchange, request);
+                    return;
+                }
+                Map<String, Object> body = ClientJson.read(request, ClientJson.MAP_TYPE);
+                body.put("id", 1);
+                respond(exchange, ClientJson.write(body));
+            } else if(path.matches(".*/\\d+$")) {
+                respond(exchange, person);
+            } else {
+                respond(exchange, search);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        int total = 0;
+        int read;
+        while((read = in.read(buffer, total, buffer.length - total)) > 0) {
+            total += read;
+            if(total == buffer.length)
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        return Arrays.copyOf(buffer, total);
+    }
+
+    private static String token() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"none\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        long exp = System.currentTimeMillis() / 1000 + 24 * 3600;
+        String claims = encoder.encodeToString(("{\"sub\":\"bench\",\"exp\":" + exp + "}").getBytes(StandardCharsets.UTF_8));
+        return header + "." + claims + ".";
+    }
+}
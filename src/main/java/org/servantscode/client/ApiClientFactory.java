@@ -2,30 +2,34 @@ package org.servantscode.client;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.glassfish.jersey.client.ClientConfig;
+import org.servantscode.commons.Organization;
+import org.servantscode.commons.security.OrganizationContext;
 import org.servantscode.commons.security.SystemJWTGenerator;
 
-import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class ApiClientFactory {
     private static final Logger LOG = LogManager.getLogger(ApiClientFactory.class);
 
-    private static final Map<String, String> DIRECTORY;
-
-    static {
-        DIRECTORY = new HashMap<>();
-        DIRECTORY.put("/rest/person", "http://person-svc:8080/rest/person");
-        DIRECTORY.put("/rest/family", "http://person-svc:8080/rest/family");
-        DIRECTORY.put("/rest/parish", "http://parish-svc:8080/rest/parish");
-//        DIRECTORY.put("/rest/email", "http://email-svc:8080/rest/email");
-    }
+    public static final String DIRECTORY_PROPERTY = "servantscode.client.directory";
 
     // ----- Singleton -----
     private static ApiClientFactory INSTANCE = new ApiClientFactory();
@@ -37,18 +41,236 @@ public class ApiClientFactory {
     }
 
     // ----- Public -----
-    private String externalPrefix = "http://localhost";
-    private boolean internalAccess = false;
+    private volatile String externalPrefix = "http://localhost";
+    private volatile boolean internalAccess = false;
+    private volatile ServiceDirectory directory = loadDirectory();
+    private volatile ServicePool externalPool = new ServicePool("", Collections.singletonList(externalPrefix), BalancingStrategy.ROUND_ROBIN);
+    private volatile HttpTransport transport;
+    private final OrgSessionStore sessions = new OrgSessionStore(1024, this::createSession);
+    private volatile String email = "greg@servantscode.org";
+    private volatile String password = "1234";
+    private volatile Executor asyncExecutor;
+    private volatile IdCache idCache = new IdCache(100_000, 3_600_000);
+    private final Map<String, FamilyIndex> familyIndexes = new ConcurrentHashMap<>(16);
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final Map<String, ReferenceDataCache> referenceData = new ConcurrentHashMap<>(16);
+    private volatile long referenceDataTtlMillis = 300_000;
+    private volatile MetricsRegistry metrics = new InMemoryMetricsRegistry();
+    private final ClientEventLog events = new ClientEventLog(8192);
+    private volatile ResilienceConfig resilience = new ResilienceConfig();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>(64);
+    private volatile ConcurrencyLimitConfig concurrencyLimits = new ConcurrencyLimitConfig();
+    private final Map<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>(64);
+    private volatile HttpCache httpCache = new HttpCache(32 * 1024 * 1024);
+    private volatile WriteBehindQueue writeBehind;
+    private volatile TrafficCapture capture;
 
     public void setExternalPrefix(String prefix) {
         externalPrefix = prefix;
+        externalPool = new ServicePool("", Collections.singletonList(prefix), BalancingStrategy.ROUND_ROBIN);
+        sessions.clear();
+    }
+
+    public String urlFor(String service) {
+        return servicePool(service).choose().getUrl() + service;
     }
 
-    public String urlFor(String url) {
-        if(internalAccess)
-            return DIRECTORY.get(url);
-        else
-            return externalPrefix + url;
+    public ServicePool servicePool(String service) {
+        return internalAccess? directory.resolve(service): externalPool;
+    }
+
+    public ServiceDirectory directory() {
+        return directory;
+    }
+
+    public void setDirectory(ServiceDirectory directory) {
+        this.directory = directory;
+    }
+
+    public HttpTransport transport() {
+        HttpTransport current = transport;
+        if(current == null) {
+            synchronized (this) {
+                if(transport == null)
+                    transport = new HttpTransport(new TransportConfig());
+                current = transport;
+            }
+        }
+        return current;
+    }
+
+    public synchronized void configureTransport(TransportConfig config) {
+        HttpTransport old = transport;
+        transport = new HttpTransport(config);
+        if(old != null)
+            old.close();
+    }
+
+    public TransportStats getTransportStats() {
+        return transport().getStats();
+    }
+
+    public Executor asyncExecutor() {
+        Executor current = asyncExecutor;
+        if(current == null) {
+            synchronized (this) {
+                if(asyncExecutor == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    asyncExecutor = Executors.newFixedThreadPool(transport().getConfig().getMaxConnections(), r -> {
+                        Thread t = new Thread(r, "sc-client-async-" + threadCount.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+                current = asyncExecutor;
+            }
+        }
+        return current;
+    }
+
+    public void setAsyncExecutor(Executor executor) {
+        asyncExecutor = executor;
+    }
+
+    public IdCache idCache() {
+        return idCache;
+    }
+
+    public void configureIdCache(int maxSize, long ttlMillis) {
+        IdCache cache = new IdCache(maxSize, ttlMillis);
+        cache.setStore(idCache.getStore());
+        idCache = cache;
+    }
+
+    // Puts a persistent tier behind the id cache. Persisted ids are served for at most maxAgeMillis, which must be
+    // positive; idCache().validate(version) additionally drops an organization's ids when its data version changes.
+    public synchronized PersistentIdStore openIdStore(Path file, long maxAgeMillis) {
+        closeIdStore();
+        PersistentIdStore store = new PersistentIdStore(file, maxAgeMillis);
+        idCache.setStore(store);
+        return store;
+    }
+
+    public synchronized void closeIdStore() {
+        PersistentIdStore store = idCache.getStore();
+        idCache.setStore(null);
+        if(store != null)
+            store.close();
+    }
+
+    public FamilyIndex familyIndex() {
+        return familyIndexes.computeIfAbsent(IdCache.orgKey(), k -> new FamilyIndex());
+    }
+
+    public SingleFlight singleFlight() {
+        return singleFlight;
+    }
+
+    // One cache per name for the life of the factory, so the first loader registered is the one kept. Loaders are
+    // static per client type and build their own client rather than capturing the caller.
+    public ReferenceDataCache referenceData(String name, String typeField, Supplier<List<Map<String, Object>>> loader) {
+        return referenceData.computeIfAbsent(name, n -> new ReferenceDataCache(n, typeField, referenceDataTtlMillis, loader));
+    }
+
+    public void setReferenceDataTtl(long ttlMillis) {
+        referenceDataTtlMillis = ttlMillis;
+        referenceData.clear();
+    }
+
+    public void invalidateReferenceData() {
+        referenceData.values().forEach(ReferenceDataCache::invalidateAll);
+    }
+
+    public MetricsRegistry metrics() {
+        return metrics;
+    }
+
+    public void setMetricsRegistry(MetricsRegistry registry) {
+        metrics = registry == null? MetricsRegistry.NOOP: registry;
+    }
+
+    public ClientEventLog events() {
+        return events;
+    }
+
+    public ResilienceConfig getResilienceConfig() {
+        return resilience;
+    }
+
+    public void configureResilience(ResilienceConfig config) {
+        resilience = config;
+        circuitBreakers.clear();
+    }
+
+    public CircuitBreaker circuitBreaker(String service) {
+        CircuitBreaker breaker = circuitBreakers.get(service);
+        return breaker != null? breaker: circuitBreakers.computeIfAbsent(service, s -> new CircuitBreaker(s, resilience));
+    }
+
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+
+    public WriteBehindQueue writeBehind() {
+        WriteBehindQueue current = writeBehind;
+        if(current == null) {
+            synchronized (this) {
+                if(writeBehind == null)
+                    writeBehind = new WriteBehindQueue(10_000, 8, asyncExecutor());
+                current = writeBehind;
+            }
+        }
+        return current;
+    }
+
+    public synchronized void configureWriteBehind(int capacity, int concurrency) {
+        WriteBehindQueue old = writeBehind;
+        writeBehind = new WriteBehindQueue(capacity, concurrency, asyncExecutor());
+        if(old != null)
+            old.close();
+    }
+
+    public synchronized TrafficCapture startCapture(Path file) {
+        stopCapture();
+        capture = new TrafficCapture(file);
+        return capture;
+    }
+
+    public synchronized void stopCapture() {
+        TrafficCapture old = capture;
+        capture = null;
+        if(old != null)
+            old.close();
+    }
+
+    public TrafficCapture capture() {
+        return capture;
+    }
+
+    public HttpCache httpCache() {
+        return httpCache;
+    }
+
+    public void configureHttpCache(long maxBytes) {
+        httpCache = new HttpCache(maxBytes);
+    }
+
+    public ConcurrencyLimitConfig getConcurrencyLimitConfig() {
+        return concurrencyLimits;
+    }
+
+    public void configureConcurrencyLimits(ConcurrencyLimitConfig config) {
+        concurrencyLimits = config;
+        limiters.clear();
+    }
+
+    public ConcurrencyLimiter concurrencyLimiter(String service) {
+        ConcurrencyLimiter limiter = limiters.get(service);
+        return limiter != null? limiter: limiters.computeIfAbsent(service, s -> new ConcurrencyLimiter(s, concurrencyLimits));
+    }
+
+    public Map<String, ConcurrencyLimiter> getConcurrencyLimiters() {
+        return Collections.unmodifiableMap(limiters);
     }
 
     public String getReferralUrl() {
@@ -57,31 +279,108 @@ public class ApiClientFactory {
 
     public void authenticateAsSystem() {
         internalAccess = true;
+        sessions.clear();
+    }
+
+    public boolean isAuthenticatedAsSystem() {
+        return internalAccess;
+    }
+
+    public void setCredentials(String email, String password) {
+        this.email = email;
+        this.password = password;
+        sessions.clear();
+    }
+
+    public OrgSession session() {
+        return sessions.get(RequestContext.currentOrganization());
+    }
+
+    public OrgSession session(Organization org) {
+        return sessions.get(org);
+    }
+
+    public OrgSessionStore getSessions() {
+        return sessions;
     }
 
     public String getToken() {
-        if(internalAccess)
-            return SystemJWTGenerator.generateToken();
-        else
-            return login("greg@servantscode.org","1234");
+        return session().getTokenManager().getToken();
     }
 
     public String login(String email, String password) {
-        WebTarget webTarget = ClientBuilder.newClient(new ClientConfig().register(BaseServiceClient.class))
-                .target(urlFor("/rest/login"));
+        Organization org = RequestContext.currentOrganization();
+        return login(email, password, org == null? null: org.getHostName());
+    }
+
+    public String login(String email, String password, String hostName) {
+        WebTarget webTarget = transport().target(urlFor("/rest/login"));
 
         Map<String, String> credentials = new HashMap<>();
         credentials.put("email", email);
         credentials.put("password", password);
 
         Invocation.Builder invocationBuilder = webTarget.request(MediaType.TEXT_PLAIN);
+        if(hostName != null)
+            invocationBuilder.header("x-sc-org", hostName);
         Response response = invocationBuilder
                 .header("referer", ApiClientFactory.instance().getReferralUrl())
                 .post(Entity.entity(credentials, MediaType.APPLICATION_JSON));
 
-        if (response.getStatus() != 200)
+        if (response.getStatus() != 200) {
+            response.close();
             LOG.error("Failed to login. Status: " + response.getStatus());
+            throw new RuntimeException("Failed to login. Status: " + response.getStatus());
+        }
 
         return response.readEntity(String.class);
     }
+
+    // ----- Private -----
+    // Refuses to sign on a thread whose OrganizationContext is another organization's (or nobody's), so a worker
+    // can never cache a token carrying the wrong org. The session keeps serving its current token until expiry.
+    private static String signSystemToken(String hostName) {
+        if(!canSignFor(hostName))
+            throw new IllegalStateException("Cannot sign a system token for " + hostName + " on a thread for " + signingHost());
+        return SystemJWTGenerator.generateToken();
+    }
+
+    private static boolean canSignFor(String hostName) {
+        return Objects.equals(signingHost(), hostName);
+    }
+
+    private static String signingHost() {
+        Organization org = OrganizationContext.getOrganization();
+        return org == null? null: org.getHostName();
+    }
+
+    private static ServiceDirectory loadDirectory() {
+        String file = System.getProperty(DIRECTORY_PROPERTY);
+        if(file == null)
+            return ServiceDirectory.defaults();
+
+        try {
+            return ServiceDirectory.load(Paths.get(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load service directory: " + file, e);
+        }
+    }
+
+    // System tokens are signed from OrganizationContext, which only the caller's own thread carries. Work handed to
+    // another thread gets the target organization's token signed (or refreshed, once due) here first, and
+    // long-running work repeats this per page, item or chunk from the thread feeding it, so its workers never have
+    // to sign one themselves.
+    /*package*/ void prepareHandoff(Organization target) {
+        if(internalAccess && target != null && canSignFor(target.getHostName()))
+            session(target).getTokenManager().getToken();
+    }
+
+    private OrgSession createSession(String hostName) {
+        // System tokens are signed locally from the caller's thread state, so refresh them inline, and only on a
+        // thread that carries the organization; other threads keep the current token.
+        TokenManager tokenManager = internalAccess?
+                new TokenManager(() -> signSystemToken(hostName), Runnable::run, () -> canSignFor(hostName)):
+                new TokenManager(() -> login(email, password, hostName));
+        return new OrgSession(hostName, externalPrefix, tokenManager);
+    }
 }
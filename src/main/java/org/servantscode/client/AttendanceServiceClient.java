@@ -3,20 +3,38 @@ package org.servantscode.client;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class AttendanceServiceClient extends BaseServiceClient {
 
-    public AttendanceServiceClient(int programId) { super(String.format("/rest/program/%d", programId)); }
+    private static final ServiceTemplate TEMPLATE = ServiceTemplate.of("/rest/program/{programId}");
+
+    public AttendanceServiceClient(int programId) { super(TEMPLATE, programId); }
 
     public Map<String, Object> recordAttendance(Map<String, Object> data, int classroomId) {
         Response response = put(String.format("classroom/%d/attendance", classroomId), data);
 
         if(response.getStatus() == 200)
-            System.out.println("Attendance recorded");
+            events().success("Attendance recorded");
         else
-            System.err.println("Failed to record attendance. Status: " + response.getStatus());
+            events().failure("Failed to record attendance. Status: {}", response.getStatus());
 
         return response.readEntity(new GenericType<Map<String, Object>>(){});
     }
+
+    public void queueAttendance(Map<String, Object> data, int classroomId) {
+        writeBehind(() -> {
+            Response response = put(String.format("classroom/%d/attendance", classroomId), data);
+            response.close();
+
+            if(response.getStatus() != 200)
+                throw new RuntimeException("Failed to record attendance. Status: " + response.getStatus());
+        });
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> recordAttendanceAsync(Map<String, Object> data, int classroomId) {
+        return async(() -> recordAttendance(data, classroomId));
+    }
 }
@@ -0,0 +1,47 @@
+package org.servantscode.client;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public enum BalancingStrategy {
+    ROUND_ROBIN {
+        @Override
+        ServiceEndpoint choose(List<ServiceEndpoint> candidates, int sequence) {
+            return candidates.get(Math.floorMod(sequence, candidates.size()));
+        }
+    },
+    LEAST_OUTSTANDING {
+        @Override
+        ServiceEndpoint choose(List<ServiceEndpoint> candidates, int sequence) {
+            // Start the scan at a rotating offset so ties don't all land on the first endpoint.
+            int size = candidates.size();
+            ServiceEndpoint best = null;
+            for(int i = 0; i < size; i++) {
+                ServiceEndpoint candidate = candidates.get(Math.floorMod(sequence + i, size));
+                if(best == null || candidate.getOutstanding() < best.getOutstanding())
+                    best = candidate;
+            }
+            return best;
+        }
+    },
+    POWER_OF_TWO {
+        @Override
+        ServiceEndpoint choose(List<ServiceEndpoint> candidates, int sequence) {
+            int size = candidates.size();
+            if(size == 1)
+                return candidates.get(0);
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            if(second >= first)
+                second++;
+
+            ServiceEndpoint a = candidates.get(first);
+            ServiceEndpoint b = candidates.get(second);
+            return a.cost() <= b.cost()? a: b;
+        }
+    };
+
+    abstract ServiceEndpoint choose(List<ServiceEndpoint> candidates, int sequence);
+}
@@ -1,49 +1,429 @@
 package org.servantscode.client;
 
+import com.fasterxml.jackson.databind.JavaType;
+import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.logging.log4j.ThreadContext;
 import org.servantscode.commons.Organization;
-import org.servantscode.commons.client.AbstractServiceClient;
-import org.servantscode.commons.security.OrganizationContext;
 
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
-import static org.servantscode.commons.StringUtils.isEmpty;
 import static org.servantscode.commons.StringUtils.isSet;
 
-public class BaseServiceClient extends AbstractServiceClient {
+public class BaseServiceClient {
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE"));
 
-    private static String token = null;
+    private final ServiceTemplate template;
+    private final Object[] pathValues;
+    private final String metricsName;
+    private String service;
 
     /*package*/ BaseServiceClient(String service) {
-        super(ApiClientFactory.instance().urlFor(service));
+        this(ServiceTemplate.of(service));
+    }
+
+    // Parameterized clients share everything but their path values, so constructing one per parent id is cheap.
+    /*package*/ BaseServiceClient(ServiceTemplate template, Object... pathValues) {
+        this.template = template;
+        this.pathValues = pathValues;
+        this.metricsName = template.getMetricsName();
     }
 
     public static void login(String email, String password) {
-        token = ApiClientFactory.instance().login(email, password);
+        ApiClientFactory factory = ApiClientFactory.instance();
+        factory.setCredentials(email, password);
+        factory.session().getTokenManager().setToken(factory.login(email, password));
     }
 
-    @Override
     public String getReferralUrl() {
         return ApiClientFactory.instance().getReferralUrl();
     }
 
-    @Override
     public String getAuthorization() {
-        if (isSet(token))
-            return "Bearer " + token;
-
-        //If not already logged in get token from the ClientFactory
-        return "Bearer " + ApiClientFactory.instance().getToken();
+        return ApiClientFactory.instance().session().getAuthorization();
     }
 
-    @Override
+    // No longer on the request path: buildInvocation sends the session's precomputed headers and the transaction id
+    // directly. These are the same headers, unmodifiable and without the per-call transaction id.
+    @Deprecated
     public Map<String, String> getAdditionalHeaders() {
-        HashMap<String, String> headers = new HashMap<>(4);
-        Organization org = OrganizationContext.getOrganization();
+        return ApiClientFactory.instance().session().getHeaders();
+    }
+
+    // ----- Http verbs -----
+    public Response get(Map<String, Object>... params) {
+        return get(null, params);
+    }
+
+    public Response get(String path, Map<String, Object>... params) {
+        return invoke("GET", path, null, params);
+    }
+
+    public Response post(Object data, Map<String, Object>... params) {
+        return invoke("POST", null, data, params);
+    }
+
+    public Response post(String path, Map<String, Object> data, Map<String, Object>... params) {
+        return invoke("POST", path, data, params);
+    }
+
+    public Response put(Object data, Map<String, Object>... params) {
+        return invoke("PUT", null, data, params);
+    }
+
+    public Response put(String path, Map<String, Object> data, Map<String, Object>... params) {
+        return invoke("PUT", path, data, params);
+    }
+
+    public Response delete(int id, Map<String, Object>... params) {
+        return invoke("DELETE", "/" + id, null, params);
+    }
+
+    // ----- Typed -----
+    protected <T> T send(String method, String path, Object data, JavaType type, Map<String, Object>... params) {
+        Object entity = data == null? null: Entity.entity(ClientJson.write(data), MediaType.APPLICATION_JSON);
+        return readEntity(invoke(method, path, entity, params), type);
+    }
+
+    protected <T> T readEntity(Response response, JavaType type) {
+        if(response.getStatus() != 200) {
+            response.close();
+            throw new RuntimeException("Request failed. Status: " + response.getStatus());
+        }
+
+        try (InputStream in = response.readEntity(InputStream.class)) {
+            return ClientJson.read(in, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read response.", e);
+        }
+    }
+
+    // ----- Events -----
+    protected ClientEventLog events() {
+        return ApiClientFactory.instance().events();
+    }
+
+    // ----- Caching -----
+    protected IdCache idCache() {
+        return ApiClientFactory.instance().idCache();
+    }
+
+    // GET through the shared http cache: fresh entries are served without a call, stale ones are revalidated with
+    // their ETag / Last-Modified and a 304 reuses the decoded value. Any other status is decoded as is and never
+    // cached, unless requireOk asks for it to throw instead.
+    protected <T> T getCached(String path, JavaType type) {
+        return getCached(path, type, false);
+    }
+
+    protected <T> T getCached(String path, JavaType type, boolean requireOk) {
+        HttpCache cache = ApiClientFactory.instance().httpCache();
+        String key = requestKey("GET", path, null);
+        HttpCache.CachedResponse cached = cache.get(key);
+        if(cached != null && cached.isFresh()) {
+            cache.hit();
+            return HttpCache.copyOf((T) cached.getValue());
+        }
+
+        Map<String, String> conditions = null;
+        if(cached != null) {
+            conditions = new HashMap<>(4);
+            if(cached.getEtag() != null)
+                conditions.put("If-None-Match", cached.getEtag());
+            if(cached.getLastModified() != null)
+                conditions.put("If-Modified-Since", cached.getLastModified());
+        }
+
+        Response response = invoke("GET", path, null, conditions);
+        if(response.getStatus() == 304 && cached != null) {
+            response.close();
+            cached.refresh(response);
+            cache.revalidated();
+            return HttpCache.copyOf((T) cached.getValue());
+        }
+
+        if(response.getStatus() != 200) {
+            if(requireOk) {
+                response.close();
+                throw new RuntimeException("Request failed. Status: " + response.getStatus());
+            }
+            events().failure("Request failed. Status: {}", response.getStatus());
+            byte[] body = response.readEntity(byte[].class);
+            return body == null || body.length == 0? null: ClientJson.read(body, type);
+        }
+
+        cache.miss();
+        byte[] body = response.readEntity(byte[].class);
+        T value = ClientJson.read(body, type);
+        cache.put(key, response, value, body.length);
+        return HttpCache.copyOf(value);
+    }
+
+    protected void evictCached(String path) {
+        ApiClientFactory.instance().httpCache().invalidate(requestKey("GET", path, null));
+    }
+
+    protected void evictAllCached() {
+        ApiClientFactory.instance().httpCache().invalidatePrefix("GET " + service());
+    }
+
+    // Identical lookups (same url, params and organization) in flight at once share one call and its result.
+    protected <T> T coalesce(String path, Map<String, Object> params, Supplier<T> lookup) {
+        return ApiClientFactory.instance().singleFlight().execute(requestKey("GET", path, params), lookup);
+    }
+
+    protected String requestKey(String method, String path, Map<String, Object> params) {
+        StringBuilder key = new StringBuilder(128).append(method).append(' ').append(service());
+        if(isSet(path))
+            key.append(path);
+        if(params != null && !params.isEmpty())
+            key.append('?').append(new TreeMap<>(params));
+
+        Organization org = RequestContext.currentOrganization();
         if(org != null)
-            headers.put("x-sc-org", OrganizationContext.getOrganization().getHostName());
-        headers.put("x-sc-transaction-id", ThreadContext.get("transaction.id"));
-        return headers;
+            key.append('#').append(org.getHostName());
+        return key.toString();
+    }
+
+    // ----- Async -----
+    protected <T> CompletableFuture<T> async(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(RequestContext.capture().wrap(call), ApiClientFactory.instance().asyncExecutor());
+    }
+
+    protected CompletableFuture<Void> asyncRun(Runnable call) {
+        return CompletableFuture.runAsync(RequestContext.capture().wrap(call), ApiClientFactory.instance().asyncExecutor());
+    }
+
+    // Queues the write and returns at once; the write should throw on failure so the queue can report it.
+    protected void writeBehind(Runnable write) {
+        ApiClientFactory.instance().writeBehind().submit(metricsName, write);
+    }
+
+    // ----- Paging -----
+    protected SearchCursor<Map<String, Object>> cursor(Map<String, Object> params, int pageSize) {
+        return new SearchCursor<>((start, count) -> fetchPage(params, start, count), pageSize);
+    }
+
+    protected SearchResult<Map<String, Object>> fetchPage(Map<String, Object> params, int start, int count) {
+        Map<String, Object> pageParams = new HashMap<>(params);
+        pageParams.put("start", start);
+        pageParams.put("count", count);
+
+        List<Map<String, Object>> page = new ArrayList<>(count);
+        SearchResult<Map<String, Object>> result = new SearchResult<>();
+        result.setTotalResults(SearchResponseReader.forEachResult(get(pageParams), page::add));
+        result.setStart(start);
+        result.setCount(page.size());
+        result.setResults(page);
+        return result;
+    }
+
+    // ----- Protected -----
+    // Idempotent calls are retried on gateway errors and connection failures with jittered exponential backoff;
+    // other calls only when the connection was never made. A 401 drops the cached token and is resent once.
+    // Every attempt passes through the service's breaker.
+    protected Response invoke(String method, String path, Object data, Map<String, Object>... params) {
+        return invoke(method, path, data, null, params);
+    }
+
+    protected Response invoke(String method, String path, Object data, Map<String, String> headers, Map<String, Object>... params) {
+        Entity<?> entity = toEntity(data);
+        ApiClientFactory factory = ApiClientFactory.instance();
+        ResilienceConfig config = factory.getResilienceConfig();
+        CircuitBreaker breaker = factory.circuitBreaker(metricsName);
+        boolean idempotent = IDEMPOTENT_METHODS.contains(method);
+        boolean reauthenticated = false;
+
+        for(int attempt = 1; ; attempt++) {
+            breaker.acquire();
+
+            Response response;
+            try {
+                response = execute(method, path, entity, headers, params);
+            } catch (ProcessingException e) {
+                breaker.recordFailure();
+                if(attempt >= config.getMaxAttempts() || !(idempotent || isConnectFailure(e)) || !backoff(config, attempt, 0))
+                    throw e;
+                breaker.retried();
+                continue;
+            } catch (RuntimeException e) {
+                breaker.release();
+                throw e;
+            }
+
+            int status = response.getStatus();
+            if(status >= 500)
+                breaker.recordFailure();
+            else
+                breaker.recordSuccess();
+
+            // A rejected token was never acted on, so any method can be resent once with a fresh one. This does
+            // not use up a retry attempt.
+            if(status == 401 && !reauthenticated) {
+                response.close();
+                factory.session().getTokenManager().invalidate();
+                reauthenticated = true;
+                attempt--;
+                continue;
+            }
+
+            if(!idempotent || !isEndpointFailure(status) || attempt >= config.getMaxAttempts() || !backoff(config, attempt, retryAfterMillis(response)))
+                return response;
+
+            response.close();
+            breaker.retried();
+        }
+    }
+
+    protected Response execute(String method, String path, Entity<?> entity, Map<String, String> headers, Map<String, Object>... params) {
+        ApiClientFactory factory = ApiClientFactory.instance();
+        ServicePool pool = factory.servicePool(template.getTemplate());
+        ServiceEndpoint endpoint = pool.choose();
+
+        CallRecorder recorder = factory.metrics().recorder(metricsName, method);
+        Invocation.Builder builder = buildInvocation(endpoint.getUrl() + template.getTemplate(), path, params)
+                .property(MetricsReaderInterceptor.RECORDER_PROPERTY, recorder);
+        if(headers != null)
+            headers.forEach(builder::header);
+
+        AtomicLong bytesOut = new AtomicLong();
+        if(entity != null)
+            builder.property(MetricsWriterInterceptor.BYTES_OUT_PROPERTY, bytesOut);
+
+        TrafficCapture capture = factory.capture();
+        if(capture != null)
+            builder.property(CaptureFilter.CAPTURE_PROPERTY, capture)
+                    .property(CaptureFilter.BASE_PROPERTY, endpoint.getUrl());
+
+        ConcurrencyLimiter limiter = factory.concurrencyLimiter(metricsName);
+        ConcurrencyLimiter.Permit permit = limiter.permit();
+        if(limiter.isEnabled())
+            builder.property(ConcurrencyPermitFilter.PERMIT_PROPERTY, permit);
+
+        recorder.started();
+        endpoint.started();
+        long start = System.nanoTime();
+        try {
+            Response response = entity == null? builder.method(method): builder.method(method, entity);
+            long elapsed = System.nanoTime() - start;
+            int status = response.getStatus();
+            recorder.completed(status, elapsed, bytesOut.get());
+            permit.completed(elapsed, status == 429 || status == 503);
+            if(isEndpointFailure(status))
+                pool.reportFailure(endpoint);
+            else
+                pool.reportSuccess(endpoint, elapsed);
+            return response;
+        } catch (ProcessingException e) {
+            long elapsed = System.nanoTime() - start;
+            recorder.failed(e, elapsed, bytesOut.get());
+            permit.failed(elapsed);
+            pool.reportFailure(endpoint);
+            throw e;
+        } catch (RuntimeException e) {
+            recorder.failed(e, System.nanoTime() - start, bytesOut.get());
+            permit.cancel();
+            pool.reportFailure(endpoint);
+            throw e;
+        }
+    }
+
+    protected Invocation.Builder buildInvocation(String url, String path, Map<String, Object>... params) {
+        WebTarget target = ApiClientFactory.instance().transport().target(url);
+        if(pathValues.length > 0)
+            target = target.resolveTemplates(template.bind(pathValues));
+        if(isSet(path))
+            target = target.path(path);
+
+        if(params != null) {
+            for(Map<String, Object> paramSet: params) {
+                for(Map.Entry<String, Object> param: paramSet.entrySet())
+                    target = target.queryParam(param.getKey(), param.getValue());
+            }
+        }
+
+        OrgSession session = ApiClientFactory.instance().session();
+        Invocation.Builder builder = target.request(MediaType.APPLICATION_JSON)
+                .header("Authorization", session.getAuthorization())
+                .header("x-sc-transaction-id", ThreadContext.get("transaction.id"));
+        session.getHeaders().forEach(builder::header);
+        return builder;
+    }
+
+    // ----- Private -----
+    private String service() {
+        String resolved = service;
+        if(resolved == null)
+            service = resolved = template.resolve(pathValues);
+        return resolved;
+    }
+
+    // Full jitter: sleep a random time up to the exponential ceiling. Returns false if interrupted.
+    private static boolean backoff(ResilienceConfig config, int attempt, long retryAfterMillis) {
+        long ceiling = Math.min(config.getMaxBackoffMillis(), config.getBaseBackoffMillis() << Math.min(attempt - 1, 20));
+        long delay = Math.max(retryAfterMillis, ThreadLocalRandom.current().nextLong(ceiling + 1));
+        if(delay > config.getMaxBackoffMillis())
+            return false;
+
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long retryAfterMillis(Response response) {
+        String retryAfter = response.getHeaderString("Retry-After");
+        if(retryAfter == null)
+            return 0;
+        try {
+            return Long.parseLong(retryAfter.trim()) * 1000;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // The request never left the client, so even a non-idempotent call is safe to send again.
+    private static boolean isConnectFailure(Throwable e) {
+        for(Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if(cause instanceof ConnectException || cause instanceof ConnectTimeoutException)
+                return true;
+        }
+        return false;
+    }
+
+    // Gateway and availability errors point at the endpoint; other statuses are answers from a healthy service.
+    private static boolean isEndpointFailure(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    // Untyped bodies go through the transport's JSON provider; typed ones arrive already encoded from send().
+    private static Entity<?> toEntity(Object data) {
+        if(data == null)
+            return null;
+        if(data instanceof Entity)
+            return (Entity<?>) data;
+        return Entity.entity(data, MediaType.APPLICATION_JSON);
     }
 }
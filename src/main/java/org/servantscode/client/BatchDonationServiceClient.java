@@ -1,23 +1,146 @@
 package org.servantscode.client;
 
 import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 public class BatchDonationServiceClient extends BaseServiceClient {
 
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private static final Map<String, Object> SKIP_DUPLICATES = Collections.singletonMap("skipDuplicates", true);
+
     public BatchDonationServiceClient() { super("/rest/donation/batch"); }
 
     public void createDonations(List<Map<String, Object>> data) {
         Map<String, Object> queryParameters = new HashMap<>();
         queryParameters.put("skipDuplicates", true);
         Response response = post(data, queryParameters);
+        response.close();
 
         if(response.getStatus() == 200)
-            System.out.println("Created " + data.size() + " donations.");
+            events().success("Created {} donations.", data.size());
         else
-            System.err.println("Failed to create donations. Status: " + response.getStatus());
+            events().failure("Failed to create donations. Status: {}", response.getStatus());
+    }
+
+    public BulkResult importDonations(Stream<Map<String, Object>> source) {
+        return importDonations(source, DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    public BulkResult importDonations(Stream<Map<String, Object>> source, int chunkSize, int parallelism) {
+        try (Stream<Map<String, Object>> donations = source) {
+            return importDonations(donations.iterator(), chunkSize, parallelism, null);
+        }
+    }
+
+    // Reads the source on the calling thread one chunk at a time, so at most parallelism chunks are ever held in
+    // memory. A chunk rejected as invalid (400 / 422) is split in half and resent until the bad rows are isolated;
+    // other failures are reported with the whole chunk's rows for resubmission. onChunk is called from the worker
+    // threads.
+    public BulkResult importDonations(Iterator<Map<String, Object>> source, int chunkSize, int parallelism,
+                                      Consumer<ChunkResult> onChunk) {
+        BulkResult result = new BulkResult();
+        Semaphore permits = new Semaphore(parallelism);
+
+        int index = 0;
+        long offset = 0;
+        while(source.hasNext()) {
+            List<Map<String, Object>> chunk = new ArrayList<>(chunkSize);
+            while(chunk.size() < chunkSize && source.hasNext())
+                chunk.add(source.next());
+
+            permits.acquireUninterruptibly();
+            int chunkIndex = index++;
+            long chunkOffset = offset;
+            offset += chunk.size();
+
+            async(() -> sendChunk(chunkIndex, chunkOffset, chunk)).whenComplete((chunkResult, error) -> {
+                try {
+                    ChunkResult completed = error == null? chunkResult:
+                            ChunkResult.failed(chunkIndex, chunkOffset, chunk, 0, error.getMessage());
+                    result.add(completed);
+                    if(onChunk != null)
+                        onChunk.accept(completed);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        permits.acquireUninterruptibly(parallelism);
+        result.finish();
+        if(result.isComplete())
+            events().success("Imported donations: {}", result);
+        else
+            events().failure("Imported donations with failures: {}", result);
+        return result;
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Void> createDonationsAsync(List<Map<String, Object>> data) {
+        return asyncRun(() -> createDonations(data));
+    }
+
+    // The import blocks until its chunks finish on the async executor, so it is coordinated from its own thread
+    // rather than taking one of that executor's threads. A system token can only be re-signed on a thread carrying
+    // the organization, and each chunk hand-off is where that happens, so in system mode the chunks are handed off
+    // from the calling thread and the returned future is already complete.
+    public CompletableFuture<BulkResult> importDonationsAsync(Iterator<Map<String, Object>> source, int chunkSize, int parallelism) {
+        CompletableFuture<BulkResult> future = new CompletableFuture<>();
+        if(ApiClientFactory.instance().isAuthenticatedAsSystem()) {
+            try {
+                future.complete(importDonations(source, chunkSize, parallelism, null));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        Thread coordinator = new Thread(RequestContext.capture().wrap(() -> {
+            try {
+                future.complete(importDonations(source, chunkSize, parallelism, null));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }), "sc-donation-import");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return future;
+    }
+
+    // ----- Private -----
+    private ChunkResult sendChunk(int index, long offset, List<Map<String, Object>> rows) {
+        Response response;
+        try {
+            response = post(rows, SKIP_DUPLICATES);
+        } catch (RuntimeException e) {
+            return ChunkResult.failed(index, offset, rows, 0, e.getMessage());
+        }
+
+        response.close();
+        int status = response.getStatus();
+        if(status == 200 || status == 204)
+            return ChunkResult.succeeded(index, offset, rows.size(), status);
+
+        if((status == 400 || status == 422) && rows.size() > 1) {
+            int half = rows.size() / 2;
+            ChunkResult first = sendChunk(index, offset, rows.subList(0, half));
+            ChunkResult second = sendChunk(index, offset + half, rows.subList(half, rows.size()));
+            return ChunkResult.merge(index, offset, first, second);
+        }
+
+        events().failure("Failed to create donations. Status: {}", status);
+        return ChunkResult.failed(index, offset, rows, status, null);
     }
 }
@@ -0,0 +1,147 @@
+package org.servantscode.client;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/*
+ * Staged producer / consumer pipeline for bulk loads. Each stage has its own worker threads and a bounded input
+ * queue, so a slow stage pushes back on the ones before it (and ultimately on the source) instead of buffering
+ * the whole load. An item whose stage throws is recorded as a failure and goes no further.
+ */
+public class BulkPipeline<T> {
+    private static final Object END = new Object();
+
+    private final List<Stage<T>> stages = new ArrayList<>();
+    private final int queueCapacity;
+
+    public BulkPipeline(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public BulkPipeline<T> stage(String name, int parallelism, Consumer<T> work) {
+        stages.add(new Stage<>(name, Math.max(1, parallelism), work));
+        return this;
+    }
+
+    // Blocks until every item has passed through (or failed in) every stage. If the source itself throws, the items
+    // already fed are still drained before the exception is rethrown. The calling thread keeps the system token
+    // fresh for the workers, before each item and every second while the pipeline drains.
+    public PipelineResult run(Iterator<T> source) {
+        if(stages.isEmpty())
+            throw new IllegalStateException("Pipeline has no stages.");
+
+        PipelineResult result = new PipelineResult();
+        List<BlockingQueue<Object>> queues = new ArrayList<>(stages.size());
+        for(int i = 0; i < stages.size(); i++)
+            queues.add(new ArrayBlockingQueue<>(queueCapacity));
+
+        RequestContext context = RequestContext.capture();
+        List<Thread> workers = new ArrayList<>();
+        for(int i = 0; i < stages.size(); i++) {
+            Stage<T> stage = stages.get(i);
+            BlockingQueue<Object> input = queues.get(i);
+            BlockingQueue<Object> output = i + 1 < stages.size()? queues.get(i + 1): null;
+            int downstreamWorkers = output == null? 0: stages.get(i + 1).parallelism;
+            AtomicInteger running = new AtomicInteger(stage.parallelism);
+            result.addStage(stage.name);
+
+            for(int w = 0; w < stage.parallelism; w++) {
+                Thread worker = new Thread(context.wrap(() -> work(stage, input, output, downstreamWorkers, running, result)),
+                        "sc-pipeline-" + stage.name + "-" + (w + 1));
+                worker.setDaemon(true);
+                workers.add(worker);
+                worker.start();
+            }
+        }
+
+        RuntimeException sourceFailure = null;
+        try {
+            BlockingQueue<Object> first = queues.get(0);
+            try {
+                while(source.hasNext()) {
+                    T item = source.next();
+                    context.presign();
+                    first.put(item);
+                }
+            } catch (RuntimeException e) {
+                sourceFailure = e;
+            }
+            for(int i = 0; i < stages.get(0).parallelism; i++)
+                first.put(END);
+
+            for(Thread worker: workers) {
+                while(worker.isAlive()) {
+                    context.presign();
+                    worker.join(1_000);
+                }
+            }
+        } catch (InterruptedException e) {
+            workers.forEach(Thread::interrupt);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Pipeline interrupted.", e);
+        }
+
+        result.finish();
+        if(sourceFailure != null)
+            throw sourceFailure;
+        return result;
+    }
+
+    // ----- Private -----
+    @SuppressWarnings("unchecked")
+    private void work(Stage<T> stage, BlockingQueue<Object> input, BlockingQueue<Object> output, int downstreamWorkers,
+                      AtomicInteger running, PipelineResult result) {
+        try {
+            while(true) {
+                Object next = input.take();
+                if(next == END)
+                    break;
+
+                T item = (T) next;
+                try {
+                    stage.work.accept(item);
+                    result.completed(stage.name);
+                } catch (RuntimeException e) {
+                    result.failed(stage.name, item, e);
+                    continue;
+                }
+
+                if(output != null)
+                    output.put(item);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // The last worker out of a stage tells the next stage there is nothing more coming. An interrupted
+            // pipeline is being torn down as a whole, so there is no one left to tell.
+            if(running.decrementAndGet() == 0 && output != null && !Thread.currentThread().isInterrupted())
+                signalEnd(output, downstreamWorkers);
+        }
+    }
+
+    private static void signalEnd(BlockingQueue<Object> output, int workers) {
+        try {
+            for(int i = 0; i < workers; i++)
+                output.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Stage<T> {
+        private final String name;
+        private final int parallelism;
+        private final Consumer<T> work;
+
+        private Stage(String name, int parallelism, Consumer<T> work) {
+            this.name = name;
+            this.parallelism = parallelism;
+            this.work = work;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.servantscode.client;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+public class BulkResult {
+    private final List<ChunkResult> chunks = new ArrayList<>();
+    private final long startedAt = System.currentTimeMillis();
+    private long finishedAt = 0;
+
+    /*package*/ synchronized void add(ChunkResult chunk) {
+        chunks.add(chunk);
+    }
+
+    /*package*/ synchronized void finish() {
+        finishedAt = System.currentTimeMillis();
+        chunks.sort(Comparator.comparingInt(ChunkResult::getIndex));
+    }
+
+    public synchronized List<ChunkResult> getChunks() {
+        return new ArrayList<>(chunks);
+    }
+
+    public synchronized List<Map<String, Object>> getFailedRows() {
+        List<Map<String, Object>> failed = new ArrayList<>();
+        chunks.forEach(chunk -> failed.addAll(chunk.getFailedRows()));
+        return failed;
+    }
+
+    public synchronized long getTotal() { return chunks.stream().mapToLong(ChunkResult::getSize).sum(); }
+    public synchronized long getAccepted() { return chunks.stream().mapToLong(ChunkResult::getAccepted).sum(); }
+    public synchronized long getFailed() { return chunks.stream().mapToLong(ChunkResult::getFailed).sum(); }
+
+    // ChunkResult.UNKNOWN once any accepted chunk is in, since the server does not report its skipped duplicates.
+    public synchronized long getDuplicates() {
+        return chunks.stream().mapToInt(ChunkResult::getDuplicates).reduce(0, ChunkResult::sumDuplicates);
+    }
+
+    public synchronized boolean isComplete() {
+        return chunks.stream().allMatch(ChunkResult::isComplete);
+    }
+
+    public synchronized long getElapsedMillis() {
+        return (finishedAt == 0? System.currentTimeMillis(): finishedAt) - startedAt;
+    }
+
+    @Override
+    public String toString() {
+        long duplicates = getDuplicates();
+        return String.format("chunks=%d total=%d accepted=%d duplicates=%s failed=%d elapsed=%dms",
+                getChunks().size(), getTotal(), getAccepted(),
+                duplicates == ChunkResult.UNKNOWN? "unknown": Long.toString(duplicates),
+                getFailed(), getElapsedMillis());
+    }
+}
@@ -0,0 +1,17 @@
+package org.servantscode.client;
+
+/*
+ * Receives the measurements for one (service, method) pair. Implementations are called on the request path and
+ * must not block.
+ */
+public interface CallRecorder {
+    void started();
+
+    void completed(int status, long nanos, long bytesOut);
+
+    void failed(Throwable error, long nanos, long bytesOut);
+
+    void bytesIn(long bytes);
+
+    void decoded(long nanos);
+}
@@ -0,0 +1,83 @@
+package org.servantscode.client;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/*
+ * Copies exchanges for requests tagged with a TrafficCapture into it. The response body is read once and
+ * handed back as a byte stream, so callers and the metrics interceptor see the same entity. Targets are
+ * stored relative to the endpoint base URL so a replay server can be mounted under any prefix. 304s are
+ * skipped; replaying them against an empty response cache would be meaningless. The request body checksum is
+ * taken as the body is written, whatever provider encodes it.
+ */
+public class CaptureFilter implements ClientRequestFilter, ClientResponseFilter, WriterInterceptor {
+    public static final String CAPTURE_PROPERTY = "org.servantscode.client.capture";
+    public static final String BASE_PROPERTY = "org.servantscode.client.capture.base";
+    private static final String START_PROPERTY = "org.servantscode.client.capture.start";
+    private static final String CHECKSUM_PROPERTY = "org.servantscode.client.capture.checksum";
+
+    @Override
+    public void filter(ClientRequestContext request) {
+        if(request.getProperty(CAPTURE_PROPERTY) instanceof TrafficCapture)
+            request.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ClientRequestContext request, ClientResponseContext response) throws IOException {
+        Object property = request.getProperty(CAPTURE_PROPERTY);
+        if(!(property instanceof TrafficCapture) || response.getStatus() == 304)
+            return;
+
+        Object start = request.getProperty(START_PROPERTY);
+        long nanos = start instanceof Long? System.nanoTime() - (Long) start: 0;
+
+        byte[] body = null;
+        if(response.hasEntity()) {
+            body = TrafficCapture.readAll(response.getEntityStream());
+            response.setEntityStream(new ByteArrayInputStream(body));
+        }
+
+        Object written = request.getProperty(CHECKSUM_PROPERTY);
+        int checksum = written instanceof Integer? (Integer) written: 0;
+
+        ((TrafficCapture) property).record(new RecordedExchange(request.getMethod(), target(request), checksum,
+                response.getStatus(), response.getHeaderString("Content-Type"), nanos, body));
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        if(!(context.getProperty(CAPTURE_PROPERTY) instanceof TrafficCapture)) {
+            context.proceed();
+            return;
+        }
+
+        CRC32 crc = new CRC32();
+        context.setOutputStream(new CheckedOutputStream(context.getOutputStream(), crc));
+        context.proceed();
+        context.setProperty(CHECKSUM_PROPERTY, (int) crc.getValue());
+    }
+
+    // ----- Private -----
+    private static String target(ClientRequestContext request) {
+        URI uri = request.getUri();
+        String path = uri.getRawPath();
+        Object base = request.getProperty(BASE_PROPERTY);
+        if(base instanceof String) {
+            String basePath = URI.create((String) base).getRawPath();
+            if(basePath != null && basePath.endsWith("/"))
+                basePath = basePath.substring(0, basePath.length() - 1);
+            if(basePath != null && !basePath.isEmpty() && path.startsWith(basePath))
+                path = path.substring(basePath.length());
+        }
+        return RecordedExchange.target(path, uri.getRawQuery());
+    }
+}
@@ -0,0 +1,79 @@
+package org.servantscode.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Outcome of one chunk of a bulk donation import. Accepted rows were taken by the server, either stored or skipped
+ * as duplicates; the response does not say which, so the duplicate count of an accepted chunk is UNKNOWN.
+ */
+public class ChunkResult {
+    public static final int UNKNOWN = -1;
+
+    private final int index;
+    private final long offset;
+    private final int size;
+    private final int accepted;
+    private final int duplicates;
+    private final List<Map<String, Object>> failedRows;
+    private final int status;
+    private final String error;
+
+    /*package*/ ChunkResult(int index, long offset, int size, int accepted, int duplicates,
+                            List<Map<String, Object>> failedRows, int status, String error) {
+        this.index = index;
+        this.offset = offset;
+        this.size = size;
+        this.accepted = accepted;
+        this.duplicates = duplicates;
+        this.failedRows = Collections.unmodifiableList(failedRows);
+        this.status = status;
+        this.error = error;
+    }
+
+    /*package*/ static ChunkResult succeeded(int index, long offset, int size, int status) {
+        return new ChunkResult(index, offset, size, size, UNKNOWN, Collections.emptyList(), status, null);
+    }
+
+    /*package*/ static ChunkResult failed(int index, long offset, List<Map<String, Object>> rows, int status, String error) {
+        return new ChunkResult(index, offset, rows.size(), 0, 0, rows, status, error);
+    }
+
+    /*package*/ static ChunkResult merge(int index, long offset, ChunkResult first, ChunkResult second) {
+        List<Map<String, Object>> failed = new ArrayList<>(first.failedRows.size() + second.failedRows.size());
+        failed.addAll(first.failedRows);
+        failed.addAll(second.failedRows);
+        return new ChunkResult(index, offset, first.size + second.size, first.accepted + second.accepted,
+                sumDuplicates(first.duplicates, second.duplicates), failed,
+                failed.isEmpty()? first.status: Math.max(first.status, second.status),
+                first.error != null? first.error: second.error);
+    }
+
+    public boolean isComplete() {
+        return failedRows.isEmpty();
+    }
+
+    /*package*/ static int sumDuplicates(int first, int second) {
+        return first == UNKNOWN || second == UNKNOWN? UNKNOWN: first + second;
+    }
+
+    // ----- Accessors -----
+    public int getIndex() { return index; }
+    public long getOffset() { return offset; }
+    public int getSize() { return size; }
+    public int getAccepted() { return accepted; }
+    public int getDuplicates() { return duplicates; }
+    public int getFailed() { return failedRows.size(); }
+    public List<Map<String, Object>> getFailedRows() { return failedRows; }
+    public int getStatus() { return status; }
+    public String getError() { return error; }
+
+    @Override
+    public String toString() {
+        return String.format("chunk %d [%d+%d] accepted=%d duplicates=%s failed=%d status=%d%s",
+                index, offset, size, accepted, duplicates == UNKNOWN? "unknown": Integer.toString(duplicates),
+                getFailed(), status, error == null? "": " error=" + error);
+    }
+}
@@ -0,0 +1,148 @@
+package org.servantscode.client;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Per-service breaker over a count-based window of recent outcomes. Opens when the failure rate in the window
+ * crosses the threshold, rejects calls until the open period ends, then lets a few probes through (half-open)
+ * and closes again only if they all succeed.
+ */
+public class CircuitBreaker {
+    private static final Logger LOG = LogManager.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String service;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openMillis;
+    private final int halfOpenProbes;
+
+    private final boolean[] window;
+    private int windowIndex = 0;
+    private int windowCount = 0;
+    private int windowFailures = 0;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt = 0;
+    private int probesIssued = 0;
+    private int probesSucceeded = 0;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreaker(String service, ResilienceConfig config) {
+        this.service = service;
+        this.window = new boolean[Math.max(1, config.getBreakerWindowSize())];
+        this.minimumCalls = Math.min(config.getBreakerMinimumCalls(), window.length);
+        this.failureRateThreshold = config.getBreakerFailureRate();
+        this.openMillis = config.getBreakerOpenMillis();
+        this.halfOpenProbes = Math.max(1, config.getBreakerHalfOpenProbes());
+    }
+
+    // Throws CircuitOpenException instead of letting the call through while the service is considered down.
+    public void acquire() {
+        if(state == State.CLOSED)
+            return;
+
+        synchronized (this) {
+            if(state == State.OPEN) {
+                long remaining = openedAt + openMillis - System.currentTimeMillis();
+                if(remaining > 0) {
+                    rejected.increment();
+                    throw new CircuitOpenException(service, remaining);
+                }
+                transition(State.HALF_OPEN);
+            }
+
+            if(state == State.HALF_OPEN) {
+                if(probesIssued >= halfOpenProbes) {
+                    rejected.increment();
+                    throw new CircuitOpenException(service, 0);
+                }
+                probesIssued++;
+            }
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        if(state == State.HALF_OPEN) {
+            if(++probesSucceeded >= halfOpenProbes)
+                transition(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void recordFailure() {
+        if(state == State.HALF_OPEN) {
+            transition(State.OPEN);
+            return;
+        }
+        record(true);
+        if(state == State.CLOSED && windowCount >= minimumCalls && getFailureRate() >= failureRateThreshold)
+            transition(State.OPEN);
+    }
+
+    // Returns a half-open probe permit for a call that never reached the service.
+    public synchronized void release() {
+        if(state == State.HALF_OPEN && probesIssued > 0)
+            probesIssued--;
+    }
+
+    /*package*/ void retried() {
+        retries.increment();
+    }
+
+    public synchronized double getFailureRate() {
+        return windowCount == 0? 0: (double) windowFailures / windowCount;
+    }
+
+    // ----- Accessors -----
+    public String getService() { return service; }
+    public State getState() { return state; }
+    public long getRejected() { return rejected.sum(); }
+    public long getRetries() { return retries.sum(); }
+    public long getOpened() { return opened.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("%s state=%s failureRate=%.2f rejected=%d retries=%d opened=%d",
+                service, state, getFailureRate(), getRejected(), getRetries(), getOpened());
+    }
+
+    // ----- Private -----
+    private void record(boolean failure) {
+        if(windowCount == window.length) {
+            if(window[windowIndex])
+                windowFailures--;
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if(failure)
+            windowFailures++;
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void transition(State next) {
+        if(next == State.OPEN) {
+            openedAt = System.currentTimeMillis();
+            opened.increment();
+            LOG.warn("Circuit opened for " + service + ". Failure rate: " + getFailureRate());
+        } else if(next == State.CLOSED) {
+            LOG.info("Circuit closed for " + service + ".");
+        }
+
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        probesIssued = 0;
+        probesSucceeded = 0;
+        state = next;
+    }
+}
@@ -0,0 +1,9 @@
+package org.servantscode.client;
+
+public class CircuitOpenException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String service, long retryAfterMillis) {
+        super("Circuit open for " + service + ". Retry in " + retryAfterMillis + "ms.");
+    }
+}
@@ -3,22 +3,30 @@ package org.servantscode.client;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class ClassroomServiceClient extends BaseServiceClient {
 
+    private static final ServiceTemplate TEMPLATE = ServiceTemplate.of("/rest/program/{programId}/section/{sectionId}/classroom");
+
     public ClassroomServiceClient(int programId, int sectionId) {
-        super(String.format("/rest/program/%d/section/%d/classroom", programId, sectionId));
+        super(TEMPLATE, programId, sectionId);
     }
 
     public Map<String, Object> createClassroom(Map<String, Object> data) {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created program section: " + data.get("name"));
+            events().success("Created program section: {}", data.get("name"));
         else
-            System.err.println("Failed to create program section. Status: " + response.getStatus());
+            events().failure("Failed to create program section. Status: {}", response.getStatus());
 
         return response.readEntity(new GenericType<Map<String, Object>>(){});
     }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createClassroomAsync(Map<String, Object> data) {
+        return async(() -> createClassroom(data));
+    }
 }
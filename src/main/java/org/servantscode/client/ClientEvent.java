@@ -0,0 +1,29 @@
+package org.servantscode.client;
+
+import org.apache.logging.log4j.Level;
+
+public class ClientEvent {
+    private final Level level;
+    private final String template;
+    private final Object[] args;
+    private final long timestamp;
+    private final String threadName;
+    private final String transactionId;
+
+    /*package*/ ClientEvent(Level level, String template, Object[] args, String threadName, String transactionId) {
+        this.level = level;
+        this.template = template;
+        this.args = args;
+        this.timestamp = System.currentTimeMillis();
+        this.threadName = threadName;
+        this.transactionId = transactionId;
+    }
+
+    // ----- Accessors -----
+    public Level getLevel() { return level; }
+    public String getTemplate() { return template; }
+    public Object[] getArgs() { return args; }
+    public long getTimestamp() { return timestamp; }
+    public String getThreadName() { return threadName; }
+    public String getTransactionId() { return transactionId; }
+}
@@ -0,0 +1,144 @@
+package org.servantscode.client;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Structured replacement for the clients' console output. Producers only filter (level, sampling) and push an
+ * event into a lock-free ring; formatting and I/O happen on one daemon consumer thread. Sampled-out and
+ * filtered events cost a volatile read and, for sampling, a random number. An idle consumer parks until a producer
+ * unparks it, so a quiet client costs no CPU.
+ */
+public class ClientEventLog {
+    private static final Logger LOG = LogManager.getLogger(ClientEventLog.class);
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final EventRing<ClientEvent> ring;
+    private final Thread consumer;
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean consumerParked = false;
+
+    private volatile ClientEventSink sink = new Log4jEventSink();
+    private volatile int minLevel = Level.INFO.intLevel();
+    private volatile double successSampleRate = 1.0;
+
+    public ClientEventLog(int capacity) {
+        ring = new EventRing<>(capacity);
+        consumer = new Thread(this::consume, "sc-client-events");
+        consumer.setDaemon(true);
+        consumer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(1000)));
+    }
+
+    // ----- Configuration -----
+    public void setSink(ClientEventSink sink) {
+        this.sink = sink;
+    }
+
+    public void setLevel(Level level) {
+        this.minLevel = level.intLevel();
+    }
+
+    public void setSuccessSampleRate(double rate) {
+        this.successSampleRate = Math.max(0, Math.min(1, rate));
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getQueued() {
+        return ring.size();
+    }
+
+    // ----- Events -----
+    public void success(String message) {
+        if(sampled())
+            publish(Level.INFO, message, NO_ARGS);
+    }
+
+    public void success(String template, Object arg) {
+        if(sampled())
+            publish(Level.INFO, template, new Object[] {arg});
+    }
+
+    public void success(String template, Object arg1, Object arg2) {
+        if(sampled())
+            publish(Level.INFO, template, new Object[] {arg1, arg2});
+    }
+
+    public void failure(String message) {
+        if(enabled(Level.WARN))
+            publish(Level.WARN, message, NO_ARGS);
+    }
+
+    public void failure(String template, Object arg) {
+        if(enabled(Level.WARN))
+            publish(Level.WARN, template, new Object[] {arg});
+    }
+
+    public void failure(String template, Object arg1, Object arg2) {
+        if(enabled(Level.WARN))
+            publish(Level.WARN, template, new Object[] {arg1, arg2});
+    }
+
+    public boolean flush(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while(ring.size() > 0) {
+            if(System.nanoTime() > deadline)
+                return false;
+            LockSupport.parkNanos(100_000);
+        }
+        return true;
+    }
+
+    // ----- Private -----
+    private boolean enabled(Level level) {
+        return level.intLevel() <= minLevel;
+    }
+
+    private boolean sampled() {
+        if(!enabled(Level.INFO))
+            return false;
+        double rate = successSampleRate;
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private void publish(Level level, String template, Object[] args) {
+        ClientEvent event = new ClientEvent(level, template, args, Thread.currentThread().getName(), ThreadContext.get("transaction.id"));
+        if(!ring.offer(event))
+            dropped.increment();
+        else if(consumerParked)
+            LockSupport.unpark(consumer);
+    }
+
+    private void consume() {
+        while(true) {
+            ClientEvent event = ring.poll();
+            if(event == null) {
+                // Announce the park before re-checking, so a producer publishing in between sees the flag.
+                consumerParked = true;
+                event = ring.poll();
+                if(event == null)
+                    LockSupport.park(this);
+                consumerParked = false;
+                if(event == null)
+                    continue;
+            }
+
+            try {
+                sink.accept(event);
+            } catch (Throwable t) {
+                LOG.warn("Client event sink failed.", t);
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.servantscode.client;
+
+/*
+ * Receives client events on the event log's consumer thread, never on the request path.
+ */
+public interface ClientEventSink {
+    void accept(ClientEvent event);
+}
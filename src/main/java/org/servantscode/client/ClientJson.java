@@ -0,0 +1,70 @@
+package org.servantscode.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * The one ObjectMapper used for typed encoding and decoding. It is configured once and JavaTypes are cached so
+ * decoding a row never re-resolves generics.
+ */
+public class ClientJson {
+    public static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE);
+
+    public static final JavaType MAP_TYPE = MAPPER.getTypeFactory().constructMapType(Map.class, String.class, Object.class);
+
+    private static final Map<Class<?>, JavaType> TYPES = new ConcurrentHashMap<>(32);
+    private static final Map<Class<?>, JavaType> SEARCH_TYPES = new ConcurrentHashMap<>(32);
+
+    private ClientJson() {}
+
+    public static JavaType type(Class<?> clazz) {
+        return TYPES.computeIfAbsent(clazz, c -> MAPPER.getTypeFactory().constructType(c));
+    }
+
+    public static JavaType searchType(Class<?> clazz) {
+        return SEARCH_TYPES.computeIfAbsent(clazz, c -> MAPPER.getTypeFactory().constructParametricType(SearchResult.class, c));
+    }
+
+    public static JavaType listType(Class<?> clazz) {
+        return MAPPER.getTypeFactory().constructCollectionType(List.class, type(clazz));
+    }
+
+    public static <T> T read(InputStream in, JavaType type) {
+        try {
+            return MAPPER.readValue(in, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode response.", e);
+        }
+    }
+
+    public static <T> T read(byte[] bytes, JavaType type) {
+        try {
+            return MAPPER.readValue(bytes, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode response.", e);
+        }
+    }
+
+    public static byte[] write(Object value) {
+        try {
+            return MAPPER.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Could not encode request.", e);
+        }
+    }
+}
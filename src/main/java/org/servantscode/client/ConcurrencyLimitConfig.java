@@ -0,0 +1,43 @@
+package org.servantscode.client;
+
+public class ConcurrencyLimitConfig {
+    private boolean enabled = false;
+    private int initialLimit = 20;
+    private int minLimit = 2;
+    private int maxLimit = 200;
+    private int maxQueued = 200;
+    private long queueTimeoutMillis = 5000;
+    private double rttTolerance = 1.5;
+    private double smoothing = 0.2;
+    private double backoffRatio = 0.9;
+
+    public ConcurrencyLimitConfig() {}
+
+    // ----- Accessors -----
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getInitialLimit() { return initialLimit; }
+    public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+
+    public int getMinLimit() { return minLimit; }
+    public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+
+    public int getMaxLimit() { return maxLimit; }
+    public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+
+    public int getMaxQueued() { return maxQueued; }
+    public void setMaxQueued(int maxQueued) { this.maxQueued = maxQueued; }
+
+    public long getQueueTimeoutMillis() { return queueTimeoutMillis; }
+    public void setQueueTimeoutMillis(long queueTimeoutMillis) { this.queueTimeoutMillis = queueTimeoutMillis; }
+
+    public double getRttTolerance() { return rttTolerance; }
+    public void setRttTolerance(double rttTolerance) { this.rttTolerance = rttTolerance; }
+
+    public double getSmoothing() { return smoothing; }
+    public void setSmoothing(double smoothing) { this.smoothing = smoothing; }
+
+    public double getBackoffRatio() { return backoffRatio; }
+    public void setBackoffRatio(double backoffRatio) { this.backoffRatio = backoffRatio; }
+}
@@ -0,0 +1,213 @@
+package org.servantscode.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Gradient-style adaptive limit on requests in flight to one service. A slow-moving average of round trip time
+ * stands in for the service's normal latency; while a fast-moving average stays within tolerance of it the limit
+ * grows by about its square root, and as latency climbs the limit shrinks in proportion. Errors that signal
+ * overload cut the limit multiplicatively. Calls over the limit wait in a bounded queue and are rejected when it
+ * is full or they time out. Disabled by default; while disabled it only counts calls in flight.
+ */
+public class ConcurrencyLimiter {
+    private final String service;
+    private final ConcurrencyLimitConfig config;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final Object waitLock = new Object();
+    private int queued = 0;
+
+    private volatile double limit;
+    private double shortRttNanos = 0;
+    private double longRttNanos = 0;
+
+    public ConcurrencyLimiter(String service, ConcurrencyLimitConfig config) {
+        this.service = service;
+        this.config = config;
+        this.limit = config.getInitialLimit();
+    }
+
+    public void acquire() {
+        if(tryAcquire())
+            return;
+
+        synchronized (waitLock) {
+            if(queued >= config.getMaxQueued()) {
+                rejected.increment();
+                throw new LimitExceededException(service, getLimit());
+            }
+
+            queued++;
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getQueueTimeoutMillis());
+                while(!tryAcquire()) {
+                    long remaining = deadline - System.nanoTime();
+                    if(remaining <= 0) {
+                        rejected.increment();
+                        throw new LimitExceededException(service, getLimit());
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(waitLock, remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.increment();
+                throw new LimitExceededException(service, getLimit());
+            } finally {
+                queued--;
+            }
+        }
+    }
+
+    // Releases the permit and feeds the round trip into the limit. Overloaded calls shrink it; others adjust by gradient.
+    public void release(long rttNanos, boolean overloaded) {
+        int current = inFlight.getAndDecrement();
+        if(!config.isEnabled())
+            return;
+
+        int grown;
+        synchronized (this) {
+            int before = (int) limit;
+            if(overloaded)
+                limit = clamp(limit * config.getBackoffRatio());
+            else if(rttNanos > 0)
+                update(rttNanos, current);
+            grown = (int) limit - before;
+        }
+
+        synchronized (waitLock) {
+            if(queued > 0 && grown > 0)
+                waitLock.notifyAll();
+            else if(queued > 0)
+                waitLock.notify();
+        }
+    }
+
+    public Permit permit() {
+        acquire();
+        return new Permit(this);
+    }
+
+    // For calls that were admitted but never sent.
+    public void cancel() {
+        inFlight.decrementAndGet();
+        synchronized (waitLock) {
+            if(queued > 0)
+                waitLock.notify();
+        }
+    }
+
+    // ----- Accessors -----
+    public String getService() { return service; }
+    public boolean isEnabled() { return config.isEnabled(); }
+    public int getLimit() { return (int) limit; }
+    public int getInFlight() { return inFlight.get(); }
+    public long getRejected() { return rejected.sum(); }
+    public synchronized long getRttMicros() { return (long) (shortRttNanos / 1000); }
+
+    public int getQueued() {
+        synchronized (waitLock) {
+            return queued;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s limit=%d inFlight=%d queued=%d rejected=%d rtt=%dus",
+                service, getLimit(), getInFlight(), getQueued(), getRejected(), getRttMicros());
+    }
+
+    // ----- Private -----
+    private boolean tryAcquire() {
+        if(!config.isEnabled()) {
+            inFlight.incrementAndGet();
+            return true;
+        }
+
+        while(true) {
+            int current = inFlight.get();
+            if(current >= (int) limit)
+                return false;
+            if(inFlight.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    private void update(long rttNanos, int inFlightAtCompletion) {
+        if(longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+
+        shortRttNanos += (rttNanos - shortRttNanos) * 0.1;
+        longRttNanos += (rttNanos - longRttNanos) * 0.002;
+
+        // Once latency recovers, pull the baseline back down rather than waiting for the slow average to catch up.
+        if(longRttNanos > 2 * shortRttNanos)
+            longRttNanos *= 0.95;
+
+        // An app-limited caller tells us nothing about how far the service could go.
+        if(inFlightAtCompletion < limit / 2)
+            return;
+
+        double gradient = Math.max(0.5, Math.min(1.0, config.getRttTolerance() * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - config.getSmoothing()) + target * config.getSmoothing());
+    }
+
+    private double clamp(double value) {
+        return Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), value));
+    }
+
+    /*
+     * One admitted call. The round trip is measured at the response headers, but the permit is only returned once
+     * the body has been read or closed as well, so a slow download still counts against the limit. Returned once.
+     */
+    public static class Permit {
+        private final ConcurrencyLimiter limiter;
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long rttNanos = 0;
+        private volatile boolean overloaded = false;
+
+        private Permit(ConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        // Called before the response is handed back when its body is still to be read.
+        /*package*/ void holdForBody() {
+            pending.incrementAndGet();
+        }
+
+        /*package*/ void bodyDone() {
+            arrive();
+        }
+
+        public void completed(long rttNanos, boolean overloaded) {
+            this.rttNanos = rttNanos;
+            this.overloaded = overloaded;
+            arrive();
+        }
+
+        // The call failed; return the permit now, whatever happens to the body.
+        public void failed(long rttNanos) {
+            if(released.compareAndSet(false, true))
+                limiter.release(rttNanos, true);
+        }
+
+        // The call was admitted but never sent.
+        public void cancel() {
+            if(released.compareAndSet(false, true))
+                limiter.cancel();
+        }
+
+        private void arrive() {
+            if(pending.decrementAndGet() == 0 && released.compareAndSet(false, true))
+                limiter.release(rttNanos, overloaded);
+        }
+    }
+}
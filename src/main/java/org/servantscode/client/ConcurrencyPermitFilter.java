@@ -0,0 +1,70 @@
+package org.servantscode.client;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/*
+ * Keeps a concurrency limiter permit held while a response body is still being read. The entity stream is
+ * wrapped so the permit goes back when the body hits its end or is closed, the same point at which the pooled
+ * connection is released. Responses without a body are left alone and release at the headers.
+ */
+public class ConcurrencyPermitFilter implements ClientResponseFilter {
+    public static final String PERMIT_PROPERTY = "org.servantscode.client.permit";
+
+    @Override
+    public void filter(ClientRequestContext request, ClientResponseContext response) throws IOException {
+        Object property = request.getProperty(PERMIT_PROPERTY);
+        if(!(property instanceof ConcurrencyLimiter.Permit) || !response.hasEntity())
+            return;
+
+        ConcurrencyLimiter.Permit permit = (ConcurrencyLimiter.Permit) property;
+        permit.holdForBody();
+        response.setEntityStream(new PermitInputStream(response.getEntityStream(), permit));
+    }
+
+    private static class PermitInputStream extends FilterInputStream {
+        private final ConcurrencyLimiter.Permit permit;
+        private boolean done = false;
+
+        private PermitInputStream(InputStream in, ConcurrencyLimiter.Permit permit) {
+            super(in);
+            this.permit = permit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if(b < 0)
+                finish();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if(n < 0)
+                finish();
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                finish();
+            }
+        }
+
+        private void finish() {
+            if(!done) {
+                done = true;
+                permit.bodyDone();
+            }
+        }
+    }
+}
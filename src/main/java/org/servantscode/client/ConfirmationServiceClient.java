@@ -3,6 +3,7 @@ package org.servantscode.client;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class ConfirmationServiceClient extends BaseServiceClient {
@@ -13,10 +14,15 @@ public class ConfirmationServiceClient extends BaseServiceClient {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created confirmation: " + ((Map<String,Object>)data.get("person")).get("id"));
+            events().success("Created confirmation: {}", ((Map<String,Object>)data.get("person")).get("id"));
         else
-            System.err.println("Failed to create confirmation. Status: " + response.getStatus());
+            events().failure("Failed to create confirmation. Status: {}", response.getStatus());
 
         return response.readEntity(new GenericType<Map<String, Object>>(){});
     }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createConfirmationAsync(Map<String, Object> data) {
+        return async(() -> createConfirmation(data));
+    }
 }
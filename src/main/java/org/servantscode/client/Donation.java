@@ -0,0 +1,41 @@
+package org.servantscode.client;
+
+import java.time.LocalDate;
+
+public class Donation {
+    private long id;
+    private int familyId;
+    private int fundId;
+    private float amount;
+    private LocalDate donationDate;
+    private String donationType;
+    private long checkNumber;
+    private String transactionId;
+
+    public Donation() {}
+
+    // ----- Accessors -----
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public int getFamilyId() { return familyId; }
+    public void setFamilyId(int familyId) { this.familyId = familyId; }
+
+    public int getFundId() { return fundId; }
+    public void setFundId(int fundId) { this.fundId = fundId; }
+
+    public float getAmount() { return amount; }
+    public void setAmount(float amount) { this.amount = amount; }
+
+    public LocalDate getDonationDate() { return donationDate; }
+    public void setDonationDate(LocalDate donationDate) { this.donationDate = donationDate; }
+
+    public String getDonationType() { return donationType; }
+    public void setDonationType(String donationType) { this.donationType = donationType; }
+
+    public long getCheckNumber() { return checkNumber; }
+    public void setCheckNumber(long checkNumber) { this.checkNumber = checkNumber; }
+
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+}
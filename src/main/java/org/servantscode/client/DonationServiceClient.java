@@ -4,6 +4,7 @@ import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class DonationServiceClient extends BaseServiceClient {
@@ -14,8 +15,18 @@ public class DonationServiceClient extends BaseServiceClient {
         Response response = post(data);
 
         if(response.getStatus() != 200)
-            System.err.println("Failed to create donation. Status: " + response.getStatus());
+            events().failure("Failed to create donation. Status: {}", response.getStatus());
 
         return response.readEntity(new GenericType<Map<String, Object>>(){});
     }
+
+    // ----- Typed -----
+    public Donation createDonation(Donation donation) {
+        return send("POST", null, donation, ClientJson.type(Donation.class));
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createDonationAsync(Map<String, Object> data) {
+        return async(() -> createDonation(data));
+    }
 }
@@ -0,0 +1,73 @@
+package org.servantscode.client;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class EndpointMetrics implements CallRecorder {
+    private final String service;
+    private final String method;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram decodeLatency = new LatencyHistogram();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>(8);
+
+    public EndpointMetrics(String service, String method) {
+        this.service = service;
+        this.method = method;
+    }
+
+    @Override
+    public void started() {
+        inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void completed(int status, long nanos, long bytesOut) {
+        inFlight.decrementAndGet();
+        requests.increment();
+        latency.recordNanos(nanos);
+        this.bytesOut.add(bytesOut);
+
+        LongAdder statusCount = statuses.get(status);
+        if(statusCount == null)
+            statusCount = statuses.computeIfAbsent(status, s -> new LongAdder());
+        statusCount.increment();
+
+        if(status >= 400)
+            errors.increment();
+    }
+
+    @Override
+    public void failed(Throwable error, long nanos, long bytesOut) {
+        inFlight.decrementAndGet();
+        requests.increment();
+        errors.increment();
+        latency.recordNanos(nanos);
+        this.bytesOut.add(bytesOut);
+    }
+
+    @Override
+    public void bytesIn(long bytes) {
+        bytesIn.add(bytes);
+    }
+
+    @Override
+    public void decoded(long nanos) {
+        decodeLatency.recordNanos(nanos);
+    }
+
+    public EndpointSnapshot snapshot() {
+        Map<Integer, Long> statusCounts = new HashMap<>(statuses.size() * 2);
+        statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+        return new EndpointSnapshot(service, method, requests.sum(), errors.sum(), inFlight.get(),
+                bytesIn.sum(), bytesOut.sum(), statusCounts, latency.snapshot(), decodeLatency.snapshot());
+    }
+}
@@ -0,0 +1,50 @@
+package org.servantscode.client;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class EndpointSnapshot {
+    private final String service;
+    private final String method;
+    private final long requests;
+    private final long errors;
+    private final int inFlight;
+    private final long bytesIn;
+    private final long bytesOut;
+    private final Map<Integer, Long> statusCounts;
+    private final HistogramSnapshot latency;
+    private final HistogramSnapshot decodeLatency;
+
+    /*package*/ EndpointSnapshot(String service, String method, long requests, long errors, int inFlight,
+                                 long bytesIn, long bytesOut, Map<Integer, Long> statusCounts,
+                                 HistogramSnapshot latency, HistogramSnapshot decodeLatency) {
+        this.service = service;
+        this.method = method;
+        this.requests = requests;
+        this.errors = errors;
+        this.inFlight = inFlight;
+        this.bytesIn = bytesIn;
+        this.bytesOut = bytesOut;
+        this.statusCounts = Collections.unmodifiableMap(statusCounts);
+        this.latency = latency;
+        this.decodeLatency = decodeLatency;
+    }
+
+    // ----- Accessors -----
+    public String getService() { return service; }
+    public String getMethod() { return method; }
+    public long getRequests() { return requests; }
+    public long getErrors() { return errors; }
+    public int getInFlight() { return inFlight; }
+    public long getBytesIn() { return bytesIn; }
+    public long getBytesOut() { return bytesOut; }
+    public Map<Integer, Long> getStatusCounts() { return statusCounts; }
+    public HistogramSnapshot getLatency() { return latency; }
+    public HistogramSnapshot getDecodeLatency() { return decodeLatency; }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s requests=%d errors=%d inFlight=%d in=%dB out=%dB statuses=%s latency[%s] decode[%s]",
+                method, service, requests, errors, inFlight, bytesIn, bytesOut, statusCounts, latency, decodeLatency);
+    }
+}
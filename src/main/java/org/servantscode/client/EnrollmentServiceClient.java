@@ -2,6 +2,7 @@ package org.servantscode.client;
 
 import javax.ws.rs.core.Response;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class EnrollmentServiceClient extends BaseServiceClient {
 
@@ -10,10 +11,26 @@ public class EnrollmentServiceClient extends BaseServiceClient {
 
     public void createEnrollment(Map<String, Object> data) {
         Response response = post(data);
+        response.close();
 
         if(response.getStatus() == 200)
-            System.out.println("Created Enrollment: " + data.get("personId"));
+            events().success("Created Enrollment: {}", data.get("personId"));
         else
-            System.err.println("Failed to create enrollment. Status: " + response.getStatus());
+            events().failure("Failed to create enrollment. Status: {}", response.getStatus());
+    }
+
+    public void queueEnrollment(Map<String, Object> data) {
+        writeBehind(() -> {
+            Response response = post(data);
+            response.close();
+
+            if(response.getStatus() != 200)
+                throw new RuntimeException("Failed to create enrollment. Status: " + response.getStatus());
+        });
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Void> createEnrollmentAsync(Map<String, Object> data) {
+        return asyncRun(() -> createEnrollment(data));
     }
 }
@@ -2,15 +2,19 @@ package org.servantscode.client;
 
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public class EquipmentServiceClient extends BaseServiceClient {
 
-    private Map<String, Integer> equipmentIdCache = new HashMap<>(16);
-    private boolean equipmentLoaded = false;
+    private static final String ENTITY = "equipment";
+    private static final Supplier<List<Map<String, Object>>> LOADER = () -> new EquipmentServiceClient().loadAllEquipment();
 
 //    public EquipmentServiceClient() { super("http://schedule-svc:8080/rest/equipment"); }
     public EquipmentServiceClient() { super("/rest/equipment"); }
@@ -19,50 +23,76 @@ public class EquipmentServiceClient extends BaseServiceClient {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created: " + data.get("name"));
+            events().success("Created: {}", data.get("name"));
         else
-            System.err.println("Failed to create equipment. Status: " + response.getStatus());
+            events().failure("Failed to create equipment. Status: {}", response.getStatus());
 
-        return response.readEntity(new GenericType<Map<String, Object>>(){});
+        Map<String, Object> equipment = response.readEntity(new GenericType<Map<String, Object>>(){});
+        idCache().put(ENTITY, (String)equipment.get("name"), (Integer)equipment.get("id"));
+        equipment().invalidate();
+        return equipment;
     }
 
     public int getEquipmentId(String equipmentName) {
-        if(equipmentIdCache.get(equipmentName) != null)
-            return equipmentIdCache.get(equipmentName);
+        int cachedId = idCache().get(ENTITY, equipmentName);
+        if(cachedId != 0)
+            return cachedId;
+
+        int snapshotId = equipment().snapshot().idOf(equipmentName);
+        if(snapshotId != 0)
+            return snapshotId;
 
         Map<String, Object> params = new HashMap<>(8);
         params.put("count", 1);
         params.put("search", equipmentName);
 
-        Response response = get(params);
-        Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
+        return coalesce(null, params, () -> {
+            Response response = get(params);
+            Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
 
-        List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
-        int id = (int)results.get(0).get("id");
+            List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
+            int id = (int)results.get(0).get("id");
 
-        equipmentIdCache.put(equipmentName, id);
-        return id;
+            idCache().put(ENTITY, equipmentName, id);
+            return id;
+        });
     }
 
     public Set<String> getEquipment() {
-        if(!equipmentLoaded)
-            loadAllEquipment();
+        return new HashSet<>(equipment().snapshot().names());
+    }
+
+    public void refreshEquipment() {
+        equipment().refresh();
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createEquipmentAsync(Map<String, Object> data) {
+        return async(() -> createEquipment(data));
+    }
+
+    public CompletableFuture<Integer> getEquipmentIdAsync(String equipmentName) {
+        return async(() -> getEquipmentId(equipmentName));
+    }
 
-        return equipmentIdCache.keySet();
+    public CompletableFuture<Set<String>> getEquipmentAsync() {
+        return async(() -> getEquipment());
     }
 
     // ----- Private -----
+    private ReferenceDataCache equipment() {
+        return ApiClientFactory.instance().referenceData(ENTITY, null, LOADER);
+    }
 
     private List<Map<String, Object>> loadAllEquipment() {
         Map<String, Object> params = new HashMap<>(8);
         params.put("count", 1000);
 
-        Response response = get(params);
-        Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
-
-        List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
-        results.stream().forEach((result) -> equipmentIdCache.put((String)result.get("name"), (Integer)result.get("id")));
-        equipmentLoaded = true;
+        List<Map<String, Object>> results = new ArrayList<>();
+        SearchResponseReader.forEachResult(get(params), (result) -> {
+            idCache().put(ENTITY, (String)result.get("name"), (Integer)result.get("id"));
+            results.add(result);
+        });
         return results;
     }
 }
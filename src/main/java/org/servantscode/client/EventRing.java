@@ -0,0 +1,72 @@
+package org.servantscode.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * Bounded, lock-free multi-producer / single-consumer ring (Vyukov style). Each slot carries a sequence number
+ * that tells producers when it is free and the consumer when it is published. A full ring rejects the offer
+ * rather than blocking the producer. The publishing store is a full volatile write so a consumer that re-checks the
+ * ring after announcing it is about to park cannot miss an item whose producer then skips the wake-up.
+ */
+public class EventRing<T> {
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public EventRing(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity) - 1) << 1;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for(int i = 0; i < capacity; i++)
+            sequences.set(i, i);
+    }
+
+    public boolean offer(T item) {
+        long pos = tail.get();
+        while(true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if(diff == 0) {
+                if(tail.compareAndSet(pos, pos + 1)) {
+                    slots.lazySet(index, item);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if(diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    // Only ever called from the single consumer thread.
+    public T poll() {
+        long pos = head.get();
+        int index = (int) (pos & mask);
+        if(sequences.get(index) != pos + 1)
+            return null;
+
+        T item = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.lazySet(index, pos + capacity);
+        head.lazySet(pos + 1);
+        return item;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
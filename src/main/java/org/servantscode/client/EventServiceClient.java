@@ -1,13 +1,12 @@
 package org.servantscode.client;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class EventServiceClient extends BaseServiceClient {
 
@@ -17,14 +16,10 @@ public class EventServiceClient extends BaseServiceClient {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created: " + data.get("title"));
+            events().success("Created: {}", data.get("title"));
         else {
-            System.err.println("Failed to create event. Status: " + response.getStatus());
-            try {
-                System.err.println("Call failed: " + new ObjectMapper().writeValueAsString(data));
-            } catch (JsonProcessingException e) {
-                //Won't happen
-            }
+            events().failure("Failed to create event. Status: {}", response.getStatus());
+            events().failure("Call failed: {}", new String(ClientJson.write(data), StandardCharsets.UTF_8));
         }
 
         return response.readEntity(new GenericType<Map<String, Object>>(){});
@@ -41,4 +36,13 @@ public class EventServiceClient extends BaseServiceClient {
         List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
         return results.get(0);
     }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createEventAsync(Map<String, Object> data) {
+        return async(() -> createEvent(data));
+    }
+
+    public CompletableFuture<Map<String, Object>> getEventAsync(String eventSearch) {
+        return async(() -> getEvent(eventSearch));
+    }
 }
@@ -0,0 +1,37 @@
+package org.servantscode.client;
+
+import java.util.List;
+
+public class Family {
+    private int id;
+    private String surname;
+    private int envelopeNumber;
+    private String homePhone;
+    private String homeEmail;
+    private boolean inactive;
+    private List<Person> members;
+
+    public Family() {}
+
+    // ----- Accessors -----
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getSurname() { return surname; }
+    public void setSurname(String surname) { this.surname = surname; }
+
+    public int getEnvelopeNumber() { return envelopeNumber; }
+    public void setEnvelopeNumber(int envelopeNumber) { this.envelopeNumber = envelopeNumber; }
+
+    public String getHomePhone() { return homePhone; }
+    public void setHomePhone(String homePhone) { this.homePhone = homePhone; }
+
+    public String getHomeEmail() { return homeEmail; }
+    public void setHomeEmail(String homeEmail) { this.homeEmail = homeEmail; }
+
+    public boolean isInactive() { return inactive; }
+    public void setInactive(boolean inactive) { this.inactive = inactive; }
+
+    public List<Person> getMembers() { return members; }
+    public void setMembers(List<Person> members) { this.members = members; }
+}
@@ -0,0 +1,42 @@
+package org.servantscode.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * One family and its members moving through a FamilyImporter. The created records (with their server assigned
+ * ids) are filled in as each stage completes.
+ */
+public class FamilyImport {
+    private final Map<String, Object> family;
+    private final List<Map<String, Object>> members;
+
+    private volatile Map<String, Object> createdFamily;
+    private final List<Map<String, Object>> createdMembers = Collections.synchronizedList(new ArrayList<>());
+
+    public FamilyImport(Map<String, Object> family, List<Map<String, Object>> members) {
+        this.family = family;
+        this.members = members;
+    }
+
+    public int getFamilyId() {
+        Object id = createdFamily == null? null: createdFamily.get("id");
+        return id instanceof Integer? (Integer) id: 0;
+    }
+
+    /*package*/ void setCreatedFamily(Map<String, Object> createdFamily) {
+        this.createdFamily = createdFamily;
+    }
+
+    /*package*/ void addCreatedMember(Map<String, Object> createdMember) {
+        createdMembers.add(createdMember);
+    }
+
+    // ----- Accessors -----
+    public Map<String, Object> getFamily() { return family; }
+    public List<Map<String, Object>> getMembers() { return members; }
+    public Map<String, Object> getCreatedFamily() { return createdFamily; }
+    public List<Map<String, Object>> getCreatedMembers() { return createdMembers; }
+}
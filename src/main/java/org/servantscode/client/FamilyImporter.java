@@ -0,0 +1,95 @@
+package org.servantscode.client;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/*
+ * Bulk family load as a three stage pipeline: create the family, create its members with the new family id, then
+ * link them with relationships. Each stage runs with its own parallelism, and the created names and ids land in
+ * the shared id cache as they are created, so later lookups in the same load never hit the services. Source data
+ * has no standard way to mark spouses and children, so the caller supplies the relationship builder; it runs
+ * once the members exist and sees their ids through getCreatedMembers().
+ */
+public class FamilyImporter {
+    private final FamilyServiceClient families = new FamilyServiceClient();
+    private final PersonServiceClient people = new PersonServiceClient();
+    private final RelationshipServiceClient relationships = new RelationshipServiceClient();
+
+    private int familyParallelism = 4;
+    private int personParallelism = 8;
+    private int relationshipParallelism = 2;
+    private int queueCapacity = 256;
+    private boolean createReciprocals = true;
+    private final Function<FamilyImport, List<Map<String, Object>>> relationshipBuilder;
+
+    public FamilyImporter(Function<FamilyImport, List<Map<String, Object>>> relationshipBuilder) {
+        if(relationshipBuilder == null)
+            throw new IllegalArgumentException("A relationship builder is required.");
+        this.relationshipBuilder = relationshipBuilder;
+    }
+
+    public PipelineResult importFamilies(Stream<FamilyImport> source) {
+        try (Stream<FamilyImport> imports = source) {
+            return importFamilies(imports.iterator());
+        }
+    }
+
+    public PipelineResult importFamilies(Iterator<FamilyImport> source) {
+        PipelineResult result = new BulkPipeline<FamilyImport>(queueCapacity)
+                .stage("family", familyParallelism, this::createFamily)
+                .stage("person", personParallelism, this::createMembers)
+                .stage("relationship", relationshipParallelism, this::createRelationships)
+                .run(source);
+
+        if(result.getFailures().isEmpty())
+            ApiClientFactory.instance().events().success("Imported families: {}", result);
+        else
+            ApiClientFactory.instance().events().failure("Imported families with failures: {}", result);
+        return result;
+    }
+
+    // ----- Private -----
+    private void createFamily(FamilyImport item) {
+        Map<String, Object> created = families.createFamily(item.getFamily());
+        if(!(created.get("id") instanceof Integer))
+            throw new IllegalStateException("Family was not created: " + item.getFamily().get("surname"));
+        item.setCreatedFamily(created);
+    }
+
+    private void createMembers(FamilyImport item) {
+        for(Map<String, Object> source: item.getMembers()) {
+            Map<String, Object> member = new HashMap<>(source);
+            member.put("familyId", item.getFamilyId());
+            Map<String, Object> created = people.createPerson(member);
+            if(!(created.get("id") instanceof Integer))
+                throw new IllegalStateException("Person was not created: " + member.get("name"));
+            item.addCreatedMember(created);
+        }
+    }
+
+    private void createRelationships(FamilyImport item) {
+        List<Map<String, Object>> links = relationshipBuilder.apply(item);
+        if(links != null && !links.isEmpty())
+            relationships.importRelationships(links, createReciprocals);
+    }
+
+    // ----- Accessors -----
+    public int getFamilyParallelism() { return familyParallelism; }
+    public void setFamilyParallelism(int familyParallelism) { this.familyParallelism = familyParallelism; }
+
+    public int getPersonParallelism() { return personParallelism; }
+    public void setPersonParallelism(int personParallelism) { this.personParallelism = personParallelism; }
+
+    public int getRelationshipParallelism() { return relationshipParallelism; }
+    public void setRelationshipParallelism(int relationshipParallelism) { this.relationshipParallelism = relationshipParallelism; }
+
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+    public boolean isCreateReciprocals() { return createReciprocals; }
+    public void setCreateReciprocals(boolean createReciprocals) { this.createReciprocals = createReciprocals; }
+}
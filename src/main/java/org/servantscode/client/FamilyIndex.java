@@ -0,0 +1,248 @@
+package org.servantscode.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * In-memory envelope number and surname index over one organization's families, so donation rows resolve to a
+ * family without a search. Envelope numbers and ids live in int maps; surnames are interned to small codes so
+ * the id to surname link is primitive too. A load builds fresh tables off to the side while lookups keep using
+ * the old ones; writes made during the load are replayed onto the new tables before they are swapped in. Loads
+ * themselves run one at a time, since they share the record of those writes.
+ */
+public class FamilyIndex {
+    private static final int[] NONE = new int[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object loadLock = new Object();
+    private Tables tables = new Tables(1024);
+    private List<Object[]> pendingWrites;
+    private volatile boolean loaded;
+    private volatile long loadedAt;
+
+    public int load(Iterator<Map<String, Object>> families) {
+        synchronized (loadLock) {
+            return rebuild(families);
+        }
+    }
+
+    // Returns the family holding the envelope number, provided its surname is exactly the one given.
+    public int findByEnvelope(int envelopeNumber, String surname) {
+        lock.readLock().lock();
+        try {
+            int id = tables.byEnvelope.get(envelopeNumber);
+            return id != 0 && surname != null && surname.equals(tables.surnameOf(id))? id: 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int[] findBySurname(String surname) {
+        lock.readLock().lock();
+        try {
+            int[] ids = tables.bySurname.get(surname);
+            return ids == null? NONE: ids.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int findFirstBySurname(String surname) {
+        lock.readLock().lock();
+        try {
+            int[] ids = tables.bySurname.get(surname);
+            return ids == null? 0: ids[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(int id, String surname, int envelopeNumber) {
+        if(id <= 0)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            tables.put(id, surname, envelopeNumber);
+            if(pendingWrites != null)
+                pendingWrites.add(new Object[] {id, surname, envelopeNumber});
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Map<String, Object> family) {
+        if(family != null && family.get("id") instanceof Integer)
+            put((Integer) family.get("id"), (String) family.get("surname"), envelopeOf(family));
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            tables.remove(id);
+            if(pendingWrites != null)
+                pendingWrites.add(new Object[] {id});
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            tables = new Tables(1024);
+            loaded = false;
+            loadedAt = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tables.envelopeOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ----- Accessors -----
+    public boolean isLoaded() { return loaded; }
+    public long getLoadedAt() { return loadedAt; }
+
+    // ----- Private -----
+    private int rebuild(Iterator<Map<String, Object>> families) {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Tables fresh = new Tables(4096);
+        int count = 0;
+        try {
+            while(families.hasNext()) {
+                Map<String, Object> family = families.next();
+                if(family.get("id") instanceof Integer) {
+                    fresh.put((Integer) family.get("id"), (String) family.get("surname"), envelopeOf(family));
+                    count++;
+                }
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for(Object[] write: pendingWrites) {
+                if(write.length == 1)
+                    fresh.remove((Integer) write[0]);
+                else
+                    fresh.put((Integer) write[0], (String) write[1], (Integer) write[2]);
+            }
+            pendingWrites = null;
+            tables = fresh;
+            loaded = true;
+            loadedAt = System.currentTimeMillis();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return count;
+    }
+
+    private static int envelopeOf(Map<String, Object> family) {
+        Object envelope = family.get("envelopeNumber");
+        return envelope instanceof Number? ((Number) envelope).intValue(): 0;
+    }
+
+    private static class Tables {
+        private final IntIntMap byEnvelope;
+        private final IntIntMap envelopeOf;
+        private final IntIntMap surnameCodeOf;
+        private final Map<String, int[]> bySurname;
+        private final Map<String, Integer> surnameCodes = new HashMap<>(256);
+        private final List<String> surnames = new ArrayList<>(256);
+
+        private Tables(int expectedSize) {
+            byEnvelope = new IntIntMap(expectedSize);
+            envelopeOf = new IntIntMap(expectedSize);
+            surnameCodeOf = new IntIntMap(expectedSize);
+            bySurname = new HashMap<>(expectedSize / 2);
+        }
+
+        // Ids with no envelope are tracked with -1 so envelopeOf still records that the family exists.
+        private void put(int id, String surname, int envelopeNumber) {
+            remove(id);
+
+            envelopeOf.put(id, envelopeNumber > 0? envelopeNumber: -1);
+            if(envelopeNumber > 0)
+                byEnvelope.put(envelopeNumber, id);
+
+            if(surname != null) {
+                surnameCodeOf.put(id, codeFor(surname));
+                int[] ids = bySurname.get(surname);
+                if(ids == null) {
+                    bySurname.put(surname, new int[] {id});
+                } else {
+                    int[] grown = Arrays.copyOf(ids, ids.length + 1);
+                    grown[ids.length] = id;
+                    bySurname.put(surname, grown);
+                }
+            }
+        }
+
+        private void remove(int id) {
+            int envelope = envelopeOf.remove(id);
+            if(envelope > 0 && byEnvelope.get(envelope) == id)
+                byEnvelope.remove(envelope);
+
+            int code = surnameCodeOf.remove(id);
+            if(code == 0)
+                return;
+
+            String surname = surnames.get(code - 1);
+            int[] ids = bySurname.get(surname);
+            if(ids == null)
+                return;
+
+            int[] remaining = new int[ids.length - 1];
+            int n = 0;
+            for(int existing: ids) {
+                if(existing != id && n < remaining.length)
+                    remaining[n++] = existing;
+            }
+            if(n == 0)
+                bySurname.remove(surname);
+            else
+                bySurname.put(surname, n == remaining.length? remaining: Arrays.copyOf(remaining, n));
+        }
+
+        private String surnameOf(int id) {
+            int code = surnameCodeOf.get(id);
+            return code == 0? null: surnames.get(code - 1);
+        }
+
+        private int codeFor(String surname) {
+            Integer code = surnameCodes.get(surname);
+            if(code == null) {
+                surnames.add(surname);
+                code = surnames.size();
+                surnameCodes.put(surname, code);
+            }
+            return code;
+        }
+    }
+}
@@ -3,16 +3,16 @@ package org.servantscode.client;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 
 public class FamilyServiceClient extends BaseServiceClient {
 
-    public FamilyServiceClient() { super("/rest/family"); }
+    private static final String ENTITY = "family";
 
-    private Map<String, Integer> idCache = new HashMap<>(16);
+    public FamilyServiceClient() { super("/rest/family"); }
 
     public Map<String, Object> createOrUpdateFamily(Map<String, Object> data) {
         return data.containsKey("id")?
@@ -24,12 +24,13 @@ public class FamilyServiceClient extends BaseServiceClient {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created: " + data.get("surname"));
+            events().success("Created: {}", data.get("surname"));
         else
-            System.err.println("Failed to create family. Status: " + response.getStatus());
+            events().failure("Failed to create family. Status: {}", response.getStatus());
 
         Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
-        idCache.put((String)resp.get("surname"), (Integer)resp.get("id"));
+        idCache().put(ENTITY, (String)resp.get("surname"), (Integer)resp.get("id"));
+        familyIndex().put(resp);
         return resp;
     }
 
@@ -37,12 +38,17 @@ public class FamilyServiceClient extends BaseServiceClient {
         Response response = put(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Updated: " + data.get("surname"));
+            events().success("Updated: {}", data.get("surname"));
         else
-            System.err.println("Failed to update family. Status: " + response.getStatus());
+            events().failure("Failed to update family. Status: {}", response.getStatus());
 
         Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
-        idCache.put((String)resp.get("surname"), (Integer)resp.get("id"));
+        if(data.get("id") instanceof Integer) {
+            idCache().invalidateId(ENTITY, (Integer)data.get("id"));
+            evictCached("/" + data.get("id"));
+        }
+        idCache().put(ENTITY, (String)resp.get("surname"), (Integer)resp.get("id"));
+        familyIndex().put(resp);
         return resp;
     }
 
@@ -50,51 +56,70 @@ public class FamilyServiceClient extends BaseServiceClient {
         Response response = get();
 
         if(response.getStatus() != 200) {
-            System.err.println("Failed to count families. Status: " + response.getStatus());
+            response.close();
+            events().failure("Failed to count families. Status: {}", response.getStatus());
             throw new RuntimeException("Could not count families");
         }
 
         Map<String, Object> searchResponse = response.readEntity(new GenericType<Map<String, Object>>(){});
         if(response.getStatus() == 200)
-            System.out.println("Got familyCount: " + searchResponse.get("totalResults"));
+            events().success("Got familyCount: {}", searchResponse.get("totalResults"));
 
         return (Integer) searchResponse.get("totalResults");
     }
 
     public Map<String, Object> getFamily(int id) {
-        Response response = get("/" + id);
-        return response.readEntity(new GenericType<Map<String, Object>>(){});
+        return getCached("/" + id, ClientJson.MAP_TYPE);
     }
 
-    public int getFamilyId(String name, int envelopeNumber) {
-        if(idCache.get(name) != null && envelopeNumber == 0 )
-            return idCache.get(name);
+    public SearchCursor<Map<String, Object>> searchFamilies(String search, int pageSize) {
+        Map<String, Object> params = new HashMap<>(4);
+        if(search != null)
+            params.put("search", search);
 
-        Map<String, Object> params = new HashMap<>(8);
-        params.put("count", 0);
-        params.put("search", name);
-        params.put("include_inactive", true);
+        return cursor(params, pageSize);
+    }
 
-        Response response = get(params);
-        if(response.getStatus() != 200)
-            return 0;
+    public Stream<Map<String, Object>> streamFamilies(String search, int pageSize) {
+        return searchFamilies(search, pageSize).stream();
+    }
 
-        Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
-        List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
-        if(envelopeNumber > 0)
-            results = results.stream().filter(r -> r.get("envelopeNumber").equals(envelopeNumber)).collect(Collectors.toList());
+    // Streams every family, inactive ones included, into this organization's FamilyIndex. Once loaded,
+    // getFamilyId answers from memory and only searches for families the index has never seen.
+    public int loadFamilyIndex(int pageSize) {
+        Map<String, Object> params = new HashMap<>(4);
+        params.put("include_inactive", true);
 
-        if(results.size() == 0)
-            return 0;
+        try (Stream<Map<String, Object>> families = cursor(params, pageSize).stream()) {
+            int count = familyIndex().load(families.iterator());
+            events().success("Indexed {} families.", count);
+            return count;
+        }
+    }
 
-        //Protect against last name substrings
-        if(!name.equals(results.get(0).get("surname")))
-            return 0;
+    public int getFamilyId(String name, int envelopeNumber) {
+        FamilyIndex index = familyIndex();
+        if(index.isLoaded()) {
+            int indexedId = envelopeNumber > 0? index.findByEnvelope(envelopeNumber, name): index.findFirstBySurname(name);
+            if(indexedId != 0)
+                return indexedId;
+        }
 
-        int id = (int)results.get(0).get("id");
+        if(envelopeNumber == 0) {
+            int cachedId = idCache().get(ENTITY, name);
+            if(cachedId != 0)
+                return cachedId;
+        }
 
-        idCache.put(name, id);
-        return id;
+        Map<String, Object> params = new HashMap<>(8);
+        params.put("count", 0);
+        params.put("search", name);
+        params.put("include_inactive", true);
+
+        // Callers share the resolved id, so the envelope number belongs in the key even though it is not sent.
+        Map<String, Object> key = new HashMap<>(params);
+        key.put("envelopeNumber", envelopeNumber);
+        return coalesce(null, key, () -> resolveFamilyId(name, envelopeNumber, params));
     }
 
     private static final Map<String, Object> DELETE_PARAMS = new HashMap<>(2);
@@ -104,10 +129,114 @@ public class FamilyServiceClient extends BaseServiceClient {
 
     public void deleteFamilyId(int id) {
         Response response = delete(id, DELETE_PARAMS);
+        response.close();
 
         if(response.getStatus() != 204) {
-            System.err.println("Failed to delete family. Status: " + response.getStatus());
+            events().failure("Failed to delete family. Status: {}", response.getStatus());
             throw new RuntimeException("Could not delete family.");
         }
+
+        idCache().invalidateId(ENTITY, id);
+        evictCached("/" + id);
+        familyIndex().remove(id);
+    }
+
+    // ----- Typed -----
+    public Family createFamily(Family family) {
+        Family created = send("POST", null, family, ClientJson.type(Family.class));
+        idCache().put(ENTITY, created.getSurname(), created.getId());
+        familyIndex().put(created.getId(), created.getSurname(), created.getEnvelopeNumber());
+        return created;
+    }
+
+    public Family updateFamily(Family family) {
+        Family updated = send("PUT", null, family, ClientJson.type(Family.class));
+        idCache().invalidateId(ENTITY, updated.getId());
+        idCache().put(ENTITY, updated.getSurname(), updated.getId());
+        familyIndex().put(updated.getId(), updated.getSurname(), updated.getEnvelopeNumber());
+        evictCached("/" + updated.getId());
+        return updated;
+    }
+
+    public Family findFamily(int id) {
+        return send("GET", "/" + id, null, ClientJson.type(Family.class));
+    }
+
+    public SearchResult<Family> searchFamilies(String search, int start, int count) {
+        Map<String, Object> params = new HashMap<>(8);
+        params.put("start", start);
+        params.put("count", count);
+        if(search != null)
+            params.put("search", search);
+
+        return send("GET", null, null, ClientJson.searchType(Family.class), params);
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createOrUpdateFamilyAsync(Map<String, Object> data) {
+        return async(() -> createOrUpdateFamily(data));
+    }
+
+    public CompletableFuture<Map<String, Object>> createFamilyAsync(Map<String, Object> data) {
+        return async(() -> createFamily(data));
+    }
+
+    public CompletableFuture<Map<String, Object>> updateFamilyAsync(Map<String, Object> data) {
+        return async(() -> updateFamily(data));
+    }
+
+    public CompletableFuture<Integer> getFamilyCountAsync() {
+        return async(() -> getFamilyCount());
+    }
+
+    public CompletableFuture<Map<String, Object>> getFamilyAsync(int id) {
+        return async(() -> getFamily(id));
+    }
+
+    public CompletableFuture<Integer> getFamilyIdAsync(String name, int envelopeNumber) {
+        return async(() -> getFamilyId(name, envelopeNumber));
+    }
+
+    public CompletableFuture<Integer> loadFamilyIndexAsync(int pageSize) {
+        return async(() -> loadFamilyIndex(pageSize));
+    }
+
+    public CompletableFuture<Void> deleteFamilyIdAsync(int id) {
+        return asyncRun(() -> deleteFamilyId(id));
+    }
+
+    // ----- Private -----
+    private FamilyIndex familyIndex() {
+        return ApiClientFactory.instance().familyIndex();
+    }
+
+    private int resolveFamilyId(String name, int envelopeNumber, Map<String, Object> params) {
+        Response response = get(params);
+        if(response.getStatus() != 200) {
+            response.close();
+            return 0;
+        }
+
+        //Rows past the first match are never decoded
+        Map<String, Object> match;
+        try (Stream<Map<String, Object>> results = SearchResponseReader.streamResults(response)) {
+            match = results.filter(r -> envelopeNumber <= 0 || r.get("envelopeNumber").equals(envelopeNumber))
+                    .findFirst().orElse(null);
+        }
+
+        if(match == null)
+            return 0;
+
+        //Protect against last name substrings
+        if(!name.equals(match.get("surname")))
+            return 0;
+
+        int id = (int)match.get("id");
+
+        idCache().put(ENTITY, name, id);
+        FamilyIndex index = familyIndex();
+        if(index.isLoaded())
+            index.put(match);
+        return id;
     }
 }
@@ -0,0 +1,15 @@
+package org.servantscode.client;
+
+public class Fund {
+    private int id;
+    private String name;
+
+    public Fund() {}
+
+    // ----- Accessors -----
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+}
@@ -2,39 +2,106 @@ package org.servantscode.client;
 
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 
 public class FundServiceClient extends BaseServiceClient {
 
+    private static final String ENTITY = "fund";
+    private static final Supplier<List<Map<String, Object>>> LOADER = () -> new FundServiceClient().loadAllFunds();
+
     public FundServiceClient() { super("/rest/fund"); }
 
     public Map<String, Object> createFund(Map<String, Object> data) {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created fund: " + data.get("name"));
+            events().success("Created fund: {}", data.get("name"));
         else
-            System.err.println("Failed to create fund. Status: " + response.getStatus());
+            events().failure("Failed to create fund. Status: {}", response.getStatus());
 
-        return response.readEntity(new GenericType<Map<String, Object>>(){});
+        Map<String, Object> fund = response.readEntity(new GenericType<Map<String, Object>>(){});
+        idCache().put(ENTITY, (String)fund.get("name"), (Integer)fund.get("id"));
+        funds().invalidate();
+        return fund;
     }
 
     public int getFundId(String fundName) {
+        int cachedId = idCache().get(ENTITY, fundName);
+        if(cachedId != 0)
+            return cachedId;
+
+        int snapshotId = funds().snapshot().idOf(fundName);
+        if(snapshotId != 0)
+            return snapshotId;
+
+        //Not in the snapshot; the fund may have been created since it was loaded
         Map<String, Object> params = new HashMap<>(8);
         params.put("search", fundName);
 
         Response response = get(params);
-        if(response.getStatus() != 200)
+        if(response.getStatus() != 200) {
+            response.close();
             throw new RuntimeException("Could not query for fund by name: " + fundName);
+        }
 
         Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
         List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
         results = results.stream().filter(r -> r.get("name").equals(fundName)).collect(Collectors.toList());
+        if(results.isEmpty())
+            return 0;
+
+        int id = (int)results.get(0).get("id");
+        idCache().put(ENTITY, fundName, id);
+        return id;
+    }
+
+    // ----- Typed -----
+    public Fund createFund(Fund fund) {
+        Fund created = send("POST", null, fund, ClientJson.type(Fund.class));
+        idCache().put(ENTITY, created.getName(), created.getId());
+        funds().invalidate();
+        return created;
+    }
+
+    public Fund findFund(String fundName) {
+        Map<String, Object> params = new HashMap<>(8);
+        params.put("search", fundName);
+
+        Fund[] match = new Fund[1];
+        SearchResponseReader.<Fund>forEachResult(get(params), ClientJson.type(Fund.class), (fund) -> {
+            if(match[0] == null && fundName.equals(fund.getName()))
+                match[0] = fund;
+        });
+        return match[0];
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createFundAsync(Map<String, Object> data) {
+        return async(() -> createFund(data));
+    }
+
+    public CompletableFuture<Integer> getFundIdAsync(String fundName) {
+        return async(() -> getFundId(fundName));
+    }
+
+    // ----- Private -----
+    private ReferenceDataCache funds() {
+        return ApiClientFactory.instance().referenceData(ENTITY, null, LOADER);
+    }
+
+    private List<Map<String, Object>> loadAllFunds() {
+        Map<String, Object> params = new HashMap<>(8);
+        params.put("count", 1000);
 
-        return results.isEmpty()? 0: (int)results.get(0).get("id");
+        List<Map<String, Object>> results = new ArrayList<>();
+        SearchResponseReader.forEachResult(get(params), results::add);
+        return results;
     }
 }
@@ -0,0 +1,47 @@
+package org.servantscode.client;
+
+public class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    /*package*/ HistogramSnapshot(long[] counts, long count, long sum, long max) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMaxMicros() {
+        return max;
+    }
+
+    public double getMeanMicros() {
+        return count == 0? 0: (double) sum / count;
+    }
+
+    public long percentileMicros(double percentile) {
+        if(count == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for(int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if(seen >= target)
+                return Math.min(LatencyHistogram.upperBoundOf(i), max);
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0fus p50=%dus p90=%dus p99=%dus p999=%dus max=%dus",
+                count, getMeanMicros(), percentileMicros(50), percentileMicros(90), percentileMicros(99), percentileMicros(99.9), max);
+    }
+}
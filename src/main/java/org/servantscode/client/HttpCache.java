@@ -0,0 +1,186 @@
+package org.servantscode.client;
+
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Client side cache of decoded GET responses, keyed by request (url, params and organization). Entries keep the
+ * response's validators so a stale entry can be revalidated with a conditional request; a 304 reuses the decoded
+ * value without reading a body. Total size is bounded by the encoded bytes of the cached bodies, evicting least
+ * recently used entries first.
+ */
+public class HttpCache {
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public HttpCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized CachedResponse get(String key) {
+        return entries.get(key);
+    }
+
+    // Stores the decoded value if the response allows it. Returns false when the response is not cacheable.
+    public boolean put(String key, Response response, Object value, int bodyBytes) {
+        CachedResponse entry = CachedResponse.from(response, value, ENTRY_OVERHEAD + key.length() * 2 + bodyBytes);
+        if(entry == null || entry.size > maxBytes) {
+            invalidate(key);
+            return false;
+        }
+
+        synchronized (this) {
+            CachedResponse old = entries.put(key, entry);
+            if(old != null)
+                bytes -= old.size;
+            bytes += entry.size;
+
+            Iterator<CachedResponse> iter = entries.values().iterator();
+            while(bytes > maxBytes && iter.hasNext()) {
+                CachedResponse eldest = iter.next();
+                iter.remove();
+                bytes -= eldest.size;
+                evictions.increment();
+            }
+        }
+        return true;
+    }
+
+    public synchronized void invalidate(String key) {
+        CachedResponse old = entries.remove(key);
+        if(old != null)
+            bytes -= old.size;
+    }
+
+    public synchronized void invalidatePrefix(String prefix) {
+        Iterator<Map.Entry<String, CachedResponse>> iter = entries.entrySet().iterator();
+        while(iter.hasNext()) {
+            Map.Entry<String, CachedResponse> e = iter.next();
+            if(e.getKey().startsWith(prefix)) {
+                bytes -= e.getValue().size;
+                iter.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /*package*/ void hit() { hits.increment(); }
+    /*package*/ void revalidated() { revalidations.increment(); }
+    /*package*/ void miss() { misses.increment(); }
+
+    // ----- Accessors -----
+    public long getHits() { return hits.sum(); }
+    public long getRevalidations() { return revalidations.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    public synchronized long getBytes() { return bytes; }
+    public synchronized int size() { return entries.size(); }
+
+    @Override
+    public String toString() {
+        return String.format("entries=%d bytes=%d hits=%d revalidated=%d misses=%d evictions=%d",
+                size(), getBytes(), getHits(), getRevalidations(), getMisses(), getEvictions());
+    }
+
+    // Values are shared by every caller, so hand out copies of the decoded maps and lists.
+    @SuppressWarnings("unchecked")
+    /*package*/ static <T> T copyOf(T value) {
+        if(value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            ((Map<Object, Object>) value).forEach((k, v) -> copy.put(k, copyOf(v)));
+            return (T) copy;
+        }
+        if(value instanceof List) {
+            List<Object> copy = new ArrayList<>(((List<?>) value).size());
+            for(Object item: (List<?>) value)
+                copy.add(copyOf(item));
+            return (T) copy;
+        }
+        return value;
+    }
+
+    public static class CachedResponse {
+        private final Object value;
+        private final String etag;
+        private final String lastModified;
+        private final int size;
+        private volatile long expiresAt;
+
+        private CachedResponse(Object value, String etag, String lastModified, long expiresAt, int size) {
+            this.value = value;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expiresAt = expiresAt;
+            this.size = size;
+        }
+
+        /*package*/ static CachedResponse from(Response response, Object value, int size) {
+            String cacheControl = response.getHeaderString("Cache-Control");
+            if(cacheControl != null && cacheControl.toLowerCase().contains("no-store"))
+                return null;
+
+            long maxAge = maxAge(cacheControl);
+            String etag = response.getHeaderString("ETag");
+            String lastModified = response.getHeaderString("Last-Modified");
+            if(maxAge <= 0 && etag == null && lastModified == null)
+                return null;
+
+            return new CachedResponse(value, etag, lastModified, System.currentTimeMillis() + Math.max(0, maxAge) * 1000, size);
+        }
+
+        // A 304 may carry new freshness information.
+        /*package*/ void refresh(Response notModified) {
+            long maxAge = maxAge(notModified.getHeaderString("Cache-Control"));
+            if(maxAge > 0)
+                expiresAt = System.currentTimeMillis() + maxAge * 1000;
+        }
+
+        public boolean isFresh() {
+            return expiresAt > System.currentTimeMillis();
+        }
+
+        // ----- Accessors -----
+        public Object getValue() { return value; }
+        public String getEtag() { return etag; }
+        public String getLastModified() { return lastModified; }
+
+        // ----- Private -----
+        private static long maxAge(String cacheControl) {
+            if(cacheControl == null)
+                return 0;
+
+            String lower = cacheControl.toLowerCase();
+            if(lower.contains("no-cache"))
+                return 0;
+
+            for(String directive: lower.split(",")) {
+                directive = directive.trim();
+                if(directive.startsWith("max-age=")) {
+                    try {
+                        return Long.parseLong(directive.substring(8).trim());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+            return 0;
+        }
+    }
+}
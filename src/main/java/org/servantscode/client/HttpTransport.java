@@ -0,0 +1,101 @@
+package org.servantscode.client;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.WebTarget;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * One pooled, keep-alive HTTP client shared by every service client. WebTargets are immutable so they are
+ * cached per base url and reused across threads.
+ */
+public class HttpTransport implements AutoCloseable {
+    private static final Logger LOG = LogManager.getLogger(HttpTransport.class);
+
+    private final TransportConfig config;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final Client client;
+    private final ScheduledExecutorService evictor;
+    private final Map<String, WebTarget> targets = new ConcurrentHashMap<>(64);
+
+    public HttpTransport(TransportConfig config) {
+        this.config = config;
+
+        connectionManager = new PoolingHttpClientConnectionManager(config.getConnectionTimeToLiveMillis(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(config.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(2000);
+
+        ClientConfig clientConfig = new ClientConfig()
+                .connectorProvider(new ApacheConnectorProvider())
+                .property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager)
+                .property(ClientProperties.CONNECT_TIMEOUT, config.getConnectTimeoutMillis())
+                .property(ClientProperties.READ_TIMEOUT, config.getReadTimeoutMillis())
+                .register(new MetricsReaderInterceptor())
+                .register(new MetricsWriterInterceptor())
+                .register(new CaptureFilter())
+                .register(new ConcurrencyPermitFilter());
+        client = ClientBuilder.newClient(clientConfig);
+
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sc-transport-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, config.getIdleEvictionMillis() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public WebTarget target(String url) {
+        return targets.computeIfAbsent(url, client::target);
+    }
+
+    public TransportConfig getConfig() {
+        return config;
+    }
+
+    public TransportStats getStats() {
+        Map<String, TransportStats> routes = new HashMap<>(8);
+        for(HttpRoute route: connectionManager.getRoutes()) {
+            PoolStats stats = connectionManager.getStats(route);
+            routes.put(route.getTargetHost().toURI(), toStats(stats, null));
+        }
+        return toStats(connectionManager.getTotalStats(), routes);
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        client.close();
+        connectionManager.shutdown();
+    }
+
+    // ----- Private -----
+    private void evictIdle() {
+        try {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(config.getIdleEvictionMillis(), TimeUnit.MILLISECONDS);
+        } catch (Throwable t) {
+            LOG.warn("Failed to evict idle connections.", t);
+        }
+    }
+
+    private static TransportStats toStats(PoolStats stats, Map<String, TransportStats> routes) {
+        return new TransportStats(stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax(), routes);
+    }
+}
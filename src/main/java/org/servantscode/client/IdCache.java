@@ -0,0 +1,288 @@
+package org.servantscode.client;
+
+import org.servantscode.commons.Organization;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Name to id cache shared by every client instance and thread. Keys are (organization, entity type, name).
+ * The cache is split into independently locked LRU segments so lookups from many threads rarely contend, and
+ * entries expire after a fixed time to live. An id of 0 means "not cached", matching the clients' convention
+ * for "not found". A reverse index from (organization, entity type, id) to keys lets an id be invalidated without
+ * scanning every segment.
+ *
+ * An optional PersistentIdStore sits behind the memory tier: misses fall through to it, and puts and
+ * invalidations are written through so the next run starts with what this one learned. An id loaded from the store
+ * is held in memory no longer than the store would serve it, and when a memory entry expires its store entry is
+ * dropped too, so an expired id never comes back from an entry written before it.
+ */
+public class IdCache {
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final ConcurrentHashMap<Key, Set<Key>> keysById = new ConcurrentHashMap<>(1024);
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder storeHits = new LongAdder();
+    private volatile PersistentIdStore store;
+
+    public IdCache(int maxSize, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        int segmentSize = Math.max(1, maxSize / SEGMENTS);
+        for(int i = 0; i < SEGMENTS; i++)
+            segments[i] = new Segment(segmentSize);
+    }
+
+    public int get(String entityType, String name) {
+        if(name == null)
+            return 0;
+
+        Key key = new Key(orgKey(), entityType, name);
+        Segment segment = segmentFor(key);
+        CachedId expired = null;
+        synchronized (segment) {
+            CachedId entry = segment.get(key);
+            if(entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits.increment();
+                return entry.id;
+            }
+            if(entry != null) {
+                remove(segment, key);
+                expired = entry;
+            }
+        }
+
+        PersistentIdStore persistent = store;
+        if(persistent != null) {
+            if(expired != null)
+                persistent.remove(key.org, entityType, name, expired.id);
+            int id = persistent.get(key.org, entityType, name);
+            if(id != 0) {
+                long expiresAt = Math.min(System.currentTimeMillis() + ttlMillis,
+                        persistent.expiresAt(key.org, entityType, name));
+                synchronized (segment) {
+                    put(segment, key, id, expiresAt);
+                }
+                storeHits.increment();
+                return id;
+            }
+        }
+        misses.increment();
+        return 0;
+    }
+
+    public void put(String entityType, String name, Integer id) {
+        if(name == null || id == null || id <= 0)
+            return;
+
+        Key key = new Key(orgKey(), entityType, name);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            put(segment, key, id);
+        }
+
+        PersistentIdStore persistent = store;
+        if(persistent != null)
+            persistent.put(key.org, entityType, name, id);
+    }
+
+    public void invalidate(String entityType, String name) {
+        if(name == null)
+            return;
+
+        Key key = new Key(orgKey(), entityType, name);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            remove(segment, key);
+        }
+
+        PersistentIdStore persistent = store;
+        if(persistent != null)
+            persistent.remove(key.org, entityType, name);
+    }
+
+    public void invalidateId(String entityType, int id) {
+        String org = orgKey();
+        Set<Key> keys = keysById.remove(idKey(org, entityType, id));
+        if(keys != null) {
+            for(Key key: keys) {
+                Segment segment = segmentFor(key);
+                synchronized (segment) {
+                    CachedId entry = segment.get(key);
+                    if(entry != null && entry.id == id)
+                        segment.remove(key);
+                }
+            }
+        }
+
+        PersistentIdStore persistent = store;
+        if(persistent != null)
+            persistent.removeId(org, entityType, id);
+    }
+
+    public void invalidateAll(String entityType) {
+        String org = orgKey();
+        for(Segment segment: segments) {
+            synchronized (segment) {
+                Iterator<Map.Entry<Key, CachedId>> iter = segment.entrySet().iterator();
+                while(iter.hasNext()) {
+                    Map.Entry<Key, CachedId> e = iter.next();
+                    if(e.getKey().entityType.equals(entityType) && e.getKey().org.equals(org)) {
+                        iter.remove();
+                        unindex(e.getKey(), e.getValue().id);
+                    }
+                }
+            }
+        }
+
+        PersistentIdStore persistent = store;
+        if(persistent != null)
+            persistent.removeType(org, entityType);
+    }
+
+    // Checks the current organization's persisted ids against its data version; see PersistentIdStore.validate.
+    public boolean validate(long version) {
+        PersistentIdStore persistent = store;
+        return persistent != null && persistent.validate(orgKey(), version);
+    }
+
+    // Clears the memory tier only; the persistent store keeps its entries.
+    public void clear() {
+        for(Segment segment: segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        keysById.clear();
+    }
+
+    public int size() {
+        int size = 0;
+        for(Segment segment: segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public IdCacheStats getStats() {
+        return new IdCacheStats(hits.sum(), misses.sum(), evictions.sum(), size(), storeHits.sum());
+    }
+
+    // ----- Accessors -----
+    public PersistentIdStore getStore() { return store; }
+    public void setStore(PersistentIdStore store) { this.store = store; }
+
+    // ----- Private -----
+    /*package*/ static String orgKey() {
+        Organization org = RequestContext.currentOrganization();
+        return org == null || org.getHostName() == null? "": org.getHostName();
+    }
+
+    private Segment segmentFor(Key key) {
+        return segments[(key.hash ^ (key.hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    // Segment changes go through these so keysById follows them; callers hold the segment's lock. The key sets are
+    // only changed inside compute, so a set taken out by invalidateId is never written to again.
+    private void put(Segment segment, Key key, int id) {
+        put(segment, key, id, System.currentTimeMillis() + ttlMillis);
+    }
+
+    private void put(Segment segment, Key key, int id, long expiresAt) {
+        CachedId previous = segment.put(key, new CachedId(id, expiresAt));
+        if(previous != null && previous.id != id)
+            unindex(key, previous.id);
+        keysById.compute(idKey(key.org, key.entityType, id), (k, keys) -> {
+            Set<Key> indexed = keys == null? new HashSet<>(2): keys;
+            indexed.add(key);
+            return indexed;
+        });
+    }
+
+    private void remove(Segment segment, Key key) {
+        CachedId removed = segment.remove(key);
+        if(removed != null)
+            unindex(key, removed.id);
+    }
+
+    private void unindex(Key key, int id) {
+        keysById.computeIfPresent(idKey(key.org, key.entityType, id), (k, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty()? null: keys;
+        });
+    }
+
+    private static Key idKey(String org, String entityType, int id) {
+        return new Key(org, entityType, Integer.toString(id));
+    }
+
+    private class Segment extends LinkedHashMap<Key, CachedId> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CachedId> eldest) {
+            if(size() <= maxSize)
+                return false;
+            evictions.increment();
+            unindex(eldest.getKey(), eldest.getValue().id);
+            return true;
+        }
+    }
+
+    private static class CachedId {
+        private final int id;
+        private final long expiresAt;
+
+        private CachedId(int id, long expiresAt) {
+            this.id = id;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class Key {
+        private final String org;
+        private final String entityType;
+        private final String name;
+        private final int hash;
+
+        private Key(String org, String entityType, String name) {
+            this.org = org;
+            this.entityType = entityType;
+            this.name = name;
+            this.hash = 31 * (31 * org.hashCode() + entityType.hashCode()) + name.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o)
+                return true;
+            if(!(o instanceof Key))
+                return false;
+            Key other = (Key) o;
+            return hash == other.hash && name.equals(other.name) && entityType.equals(other.entityType) && org.equals(other.org);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.servantscode.client;
+
+public class IdCacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+    private final long storeHits;
+
+    /*package*/ IdCacheStats(long hits, long misses, long evictions, int size, long storeHits) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+        this.storeHits = storeHits;
+    }
+
+    // ----- Accessors -----
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public int getSize() { return size; }
+    public long getStoreHits() { return storeHits; }
+
+    public double getHitRate() {
+        long total = hits + storeHits + misses;
+        return total == 0? 0: (double) (hits + storeHits) / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d storeHits=%d misses=%d evictions=%d size=%d hitRate=%.3f", hits, storeHits, misses, evictions, size, getHitRate());
+    }
+}
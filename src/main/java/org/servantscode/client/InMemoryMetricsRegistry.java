@@ -0,0 +1,32 @@
+package org.servantscode.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, EndpointMetrics>> endpoints = new ConcurrentHashMap<>(32);
+
+    @Override
+    public CallRecorder recorder(String service, String method) {
+        ConcurrentHashMap<String, EndpointMetrics> methods = endpoints.get(service);
+        if(methods == null)
+            methods = endpoints.computeIfAbsent(service, s -> new ConcurrentHashMap<>(8));
+
+        EndpointMetrics metrics = methods.get(method);
+        if(metrics == null)
+            metrics = methods.computeIfAbsent(method, m -> new EndpointMetrics(service, m));
+        return metrics;
+    }
+
+    @Override
+    public List<EndpointSnapshot> snapshot() {
+        List<EndpointSnapshot> snapshots = new ArrayList<>();
+        endpoints.values().forEach(methods -> methods.values().forEach(m -> snapshots.add(m.snapshot())));
+        return snapshots;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+}
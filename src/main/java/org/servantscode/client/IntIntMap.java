@@ -0,0 +1,121 @@
+package org.servantscode.client;
+
+import java.util.Arrays;
+
+/*
+ * Open addressing int to int map with linear probing. Key 0 is reserved as the empty marker and a missing key
+ * reads as 0, the clients' "not found" id. Removal shifts the following run back instead of leaving tombstones.
+ * Not thread safe.
+ */
+public class IntIntMap {
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    public IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    public int get(int key) {
+        if(key == 0)
+            return 0;
+
+        for(int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int existing = keys[slot];
+            if(existing == key)
+                return values[slot];
+            if(existing == 0)
+                return 0;
+        }
+    }
+
+    public int put(int key, int value) {
+        if(key == 0)
+            throw new IllegalArgumentException("Key 0 is reserved.");
+
+        int slot = mix(key) & mask;
+        while(keys[slot] != 0) {
+            if(keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if(++size >= resizeAt)
+            rehash(keys.length << 1);
+        return 0;
+    }
+
+    public int remove(int key) {
+        if(key == 0)
+            return 0;
+
+        int slot = mix(key) & mask;
+        while(keys[slot] != key) {
+            if(keys[slot] == 0)
+                return 0;
+            slot = (slot + 1) & mask;
+        }
+
+        int previous = values[slot];
+        int gap = slot;
+        for(int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            // Move the entry back if its home slot is not between the gap and where it sits now.
+            if(((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+        return previous;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // ----- Private -----
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / 2;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] != 0)
+                put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,9 @@
+package org.servantscode.client;
+
+public class LimitExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public LimitExceededException(String service, int limit) {
+        super("Concurrency limit of " + limit + " reached for " + service + ".");
+    }
+}
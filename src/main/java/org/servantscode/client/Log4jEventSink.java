@@ -0,0 +1,25 @@
+package org.servantscode.client;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+
+public class Log4jEventSink implements ClientEventSink {
+    private static final Logger LOG = LogManager.getLogger("org.servantscode.client.events");
+
+    @Override
+    public void accept(ClientEvent event) {
+        if(!LOG.isEnabled(event.getLevel()))
+            return;
+
+        if(event.getTransactionId() != null)
+            ThreadContext.put("transaction.id", event.getTransactionId());
+        ThreadContext.put("client.thread", event.getThreadName());
+        try {
+            LOG.log(event.getLevel(), event.getTemplate(), event.getArgs());
+        } finally {
+            ThreadContext.remove("transaction.id");
+            ThreadContext.remove("client.thread");
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.servantscode.client;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class MarriageServiceClient extends BaseServiceClient {
@@ -13,10 +14,15 @@ public class MarriageServiceClient extends BaseServiceClient {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created marriage: " + ((Map<String,Object>)data.get("groom")).get("id") + " - " + ((Map<String,Object>)data.get("bride")).get("id"));
+            events().success("Created marriage: {} - {}", ((Map<String,Object>)data.get("groom")).get("id"), ((Map<String,Object>)data.get("bride")).get("id"));
         else
-            System.err.println("Failed to create marriage. Status: " + response.getStatus());
+            events().failure("Failed to create marriage. Status: {}", response.getStatus());
 
         return response.readEntity(new GenericType<Map<String, Object>>(){});
     }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createMarriageAsync(Map<String, Object> data) {
+        return async(() -> createMarriage(data));
+    }
 }
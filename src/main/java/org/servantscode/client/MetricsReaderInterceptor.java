@@ -0,0 +1,57 @@
+package org.servantscode.client;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/*
+ * Counts response bytes and times entity decoding for requests tagged with a CallRecorder. Streaming reads
+ * (readEntity(InputStream.class)) return immediately, so for those only the byte count is meaningful.
+ */
+public class MetricsReaderInterceptor implements ReaderInterceptor {
+    public static final String RECORDER_PROPERTY = "org.servantscode.client.recorder";
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException, WebApplicationException {
+        Object property = context.getProperty(RECORDER_PROPERTY);
+        if(!(property instanceof CallRecorder))
+            return context.proceed();
+
+        CallRecorder recorder = (CallRecorder) property;
+        context.setInputStream(new CountingInputStream(context.getInputStream(), recorder));
+        long start = System.nanoTime();
+        try {
+            return context.proceed();
+        } finally {
+            recorder.decoded(System.nanoTime() - start);
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private final CallRecorder recorder;
+
+        private CountingInputStream(InputStream in, CallRecorder recorder) {
+            super(in);
+            this.recorder = recorder;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if(b >= 0)
+                recorder.bytesIn(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if(n > 0)
+                recorder.bytesIn(n);
+            return n;
+        }
+    }
+}
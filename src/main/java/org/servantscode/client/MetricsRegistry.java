@@ -0,0 +1,30 @@
+package org.servantscode.client;
+
+import java.util.Collections;
+import java.util.List;
+
+public interface MetricsRegistry {
+    CallRecorder recorder(String service, String method);
+
+    List<EndpointSnapshot> snapshot();
+
+    MetricsRegistry NOOP = new MetricsRegistry() {
+        private final CallRecorder recorder = new CallRecorder() {
+            @Override public void started() {}
+            @Override public void completed(int status, long nanos, long bytesOut) {}
+            @Override public void failed(Throwable error, long nanos, long bytesOut) {}
+            @Override public void bytesIn(long bytes) {}
+            @Override public void decoded(long nanos) {}
+        };
+
+        @Override
+        public CallRecorder recorder(String service, String method) {
+            return recorder;
+        }
+
+        @Override
+        public List<EndpointSnapshot> snapshot() {
+            return Collections.emptyList();
+        }
+    };
+}
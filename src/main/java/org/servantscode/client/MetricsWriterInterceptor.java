@@ -0,0 +1,46 @@
+package org.servantscode.client;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Counts request body bytes for calls tagged with a counter. Bodies are written by whichever JSON provider the
+ * transport has registered, so the size is only known once they have been streamed.
+ */
+public class MetricsWriterInterceptor implements WriterInterceptor {
+    public static final String BYTES_OUT_PROPERTY = "org.servantscode.client.bytesOut";
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        Object property = context.getProperty(BYTES_OUT_PROPERTY);
+        if(property instanceof AtomicLong)
+            context.setOutputStream(new CountingOutputStream(context.getOutputStream(), (AtomicLong) property));
+        context.proceed();
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private final AtomicLong count;
+
+        private CountingOutputStream(OutputStream out, AtomicLong count) {
+            super(out);
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count.addAndGet(len);
+        }
+    }
+}
@@ -5,41 +5,62 @@ import javax.ws.rs.core.Response;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class MinistryRoleServiceClient extends BaseServiceClient {
 
-    private Map<String, Integer> roleIdCache = new HashMap<>(8);
+    private static final ServiceTemplate TEMPLATE = ServiceTemplate.of("/rest/ministry/{ministryId}/role");
 
-    public MinistryRoleServiceClient(int ministryId) { super("/rest/ministry/" + ministryId + "/role"); }
+    private final String entityType;
+
+    public MinistryRoleServiceClient(int ministryId) {
+        super(TEMPLATE, ministryId);
+        this.entityType = "ministry/" + ministryId + "/role";
+    }
 
     public Map<String, Object> createMinistryRole(Map<String, Object> data) {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created: " + data.get("name"));
+            events().success("Created: {}", data.get("name"));
         else {
-            System.err.println("Failed to create ministry role. Status: " + response.getStatus());
+            events().failure("Failed to create ministry role. Status: {}", response.getStatus());
+            response.close();
             return null;
         }
 
-        return  response.readEntity(new GenericType<Map<String, Object>>(){});
+        Map<String, Object> role = response.readEntity(new GenericType<Map<String, Object>>(){});
+        idCache().put(entityType, (String)role.get("name"), (Integer)role.get("id"));
+        return role;
     }
 
     public int getMinistryRoleId(String roleName) {
-        if(roleIdCache.get(roleName) != null)
-            return roleIdCache.get(roleName);
+        int cachedId = idCache().get(entityType, roleName);
+        if(cachedId != 0)
+            return cachedId;
 
         Map<String, Object> params = new HashMap<>(8);
         params.put("count", 1);
         params.put("search", roleName);
 
-        Response response = get(params);
-        Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
+        return coalesce(null, params, () -> {
+            Response response = get(params);
+            Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
+
+            List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
+            int id = (int)results.get(0).get("id");
 
-        List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
-        int id = (int)results.get(0).get("id");
+            idCache().put(entityType, roleName, id);
+            return id;
+        });
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createMinistryRoleAsync(Map<String, Object> data) {
+        return async(() -> createMinistryRole(data));
+    }
 
-        roleIdCache.put(roleName, id);
-        return id;
+    public CompletableFuture<Integer> getMinistryRoleIdAsync(String roleName) {
+        return async(() -> getMinistryRoleId(roleName));
     }
 }
@@ -6,12 +6,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public class MinistryServiceClient extends BaseServiceClient {
 
-    private Map<String, Integer> ministryIdCache = new HashMap<>(16);
-    private boolean ministriesLoaded = false;
+    private static final String ENTITY = "ministry";
+    private static final Supplier<List<Map<String, Object>>> LOADER = () -> new MinistryServiceClient().loadAllMinistries();
 
     public MinistryServiceClient() { super("/rest/ministry"); }
 
@@ -19,46 +20,96 @@ public class MinistryServiceClient extends BaseServiceClient {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created: " + data.get("name"));
+            events().success("Created: {}", data.get("name"));
         else {
-            System.err.println("Failed to create ministry. Status: " + response.getStatus());
+            events().failure("Failed to create ministry. Status: {}", response.getStatus());
+            response.close();
             return null;
         }
 
-        return  response.readEntity(new GenericType<Map<String, Object>>(){});
+        Map<String, Object> ministry = response.readEntity(new GenericType<Map<String, Object>>(){});
+        idCache().put(ENTITY, (String)ministry.get("name"), (Integer)ministry.get("id"));
+        ministries().invalidate();
+        return ministry;
     }
 
     public int getMinistryId(String ministryName) {
-        if(ministryIdCache.get(ministryName) != null)
-            return ministryIdCache.get(ministryName);
+        int cachedId = idCache().get(ENTITY, ministryName);
+        if(cachedId != 0)
+            return cachedId;
+
+        int snapshotId = ministries().snapshot().idOf(ministryName);
+        if(snapshotId != 0)
+            return snapshotId;
 
         Map<String, Object> params = new HashMap<>(8);
         params.put("count", 1);
         params.put("search", ministryName);
 
-        Response response = get(params);
-        Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
+        return coalesce(null, params, () -> {
+            Response response = get(params);
+            Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
 
-        List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
-        int id = (int)results.get(0).get("id");
+            List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
+            int id = (int)results.get(0).get("id");
 
-        ministryIdCache.put(ministryName, id);
-        return id;
+            idCache().put(ENTITY, ministryName, id);
+            return id;
+        });
     }
 
     public List<String> getMinistries() {
-        if(ministriesLoaded)
-            return new ArrayList<>(ministryIdCache.keySet());
+        return new ArrayList<>(ministries().snapshot().names());
+    }
 
+    public void refreshMinistries() {
+        ministries().refresh();
+    }
+
+    // ----- Typed -----
+    public Ministry createMinistry(Ministry ministry) {
+        Ministry created = send("POST", null, ministry, ClientJson.type(Ministry.class));
+        idCache().put(ENTITY, created.getName(), created.getId());
+        ministries().invalidate();
+        return created;
+    }
+
+    public List<Ministry> getAllMinistries() {
         Map<String, Object> params = new HashMap<>(8);
         params.put("count", 1000);
 
-        Response response = get(params);
-        Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
+        List<Ministry> ministries = new ArrayList<>();
+        SearchResponseReader.<Ministry>forEachResult(get(params), ClientJson.type(Ministry.class), ministries::add);
+        return ministries;
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createMinistryAsync(Map<String, Object> data) {
+        return async(() -> createMinistry(data));
+    }
+
+    public CompletableFuture<Integer> getMinistryIdAsync(String ministryName) {
+        return async(() -> getMinistryId(ministryName));
+    }
+
+    public CompletableFuture<List<String>> getMinistriesAsync() {
+        return async(() -> getMinistries());
+    }
+
+    // ----- Private -----
+    private ReferenceDataCache ministries() {
+        return ApiClientFactory.instance().referenceData(ENTITY, null, LOADER);
+    }
+
+    private List<Map<String, Object>> loadAllMinistries() {
+        Map<String, Object> params = new HashMap<>(8);
+        params.put("count", 1000);
 
-        List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
-        results.forEach((result) -> ministryIdCache.put((String)result.get("name"), (Integer)result.get("id")));
-        ministriesLoaded = true;
-        return results.stream().map((result) -> (String)result.get("name")).collect(Collectors.toList());
+        List<Map<String, Object>> results = new ArrayList<>();
+        SearchResponseReader.forEachResult(get(params), (result) -> {
+            idCache().put(ENTITY, (String)result.get("name"), (Integer)result.get("id"));
+            results.add(result);
+        });
+        return results;
     }
 }
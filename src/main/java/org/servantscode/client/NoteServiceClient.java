@@ -2,6 +2,7 @@ package org.servantscode.client;
 
 import javax.ws.rs.core.Response;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class NoteServiceClient extends BaseServiceClient {
@@ -10,8 +11,24 @@ public class NoteServiceClient extends BaseServiceClient {
 
     public void createNote(Map<String, Object> data) {
         Response response = post(data);
+        response.close();
 
         if(response.getStatus() != 200)
-            System.err.println("Failed to create note. Status: " + response.getStatus());
+            events().failure("Failed to create note. Status: {}", response.getStatus());
+    }
+
+    public void queueNote(Map<String, Object> data) {
+        writeBehind(() -> {
+            Response response = post(data);
+            response.close();
+
+            if(response.getStatus() != 200)
+                throw new RuntimeException("Failed to create note. Status: " + response.getStatus());
+        });
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Void> createNoteAsync(Map<String, Object> data) {
+        return asyncRun(() -> createNote(data));
     }
 }
@@ -0,0 +1,62 @@
+package org.servantscode.client;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Credentials and request headers for a single organization. Headers are computed once when the session is
+ * created; only the transaction id varies per call.
+ */
+public class OrgSession {
+    private final String hostName;
+    private final Map<String, String> headers;
+    private final TokenManager tokenManager;
+
+    private volatile Authorization authorization;
+    /*package*/ volatile long lastAccess;
+
+    public OrgSession(String hostName, String referralUrl, TokenManager tokenManager) {
+        this.hostName = hostName;
+        this.tokenManager = tokenManager;
+
+        Map<String, String> headers = new HashMap<>(4);
+        headers.put("referer", referralUrl);
+        if(hostName != null)
+            headers.put("x-sc-org", hostName);
+        this.headers = Collections.unmodifiableMap(headers);
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public TokenManager getTokenManager() {
+        return tokenManager;
+    }
+
+    public String getAuthorization() {
+        String token = tokenManager.getToken();
+        Authorization auth = authorization;
+        if(auth == null || auth.token != token) {
+            auth = new Authorization(token);
+            authorization = auth;
+        }
+        return auth.header;
+    }
+
+    // ----- Private -----
+    private static class Authorization {
+        private final String token;
+        private final String header;
+
+        private Authorization(String token) {
+            this.token = token;
+            this.header = "Bearer " + token;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.servantscode.client;
+
+import org.servantscode.commons.Organization;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/*
+ * Bounded, concurrent map of organization host name to OrgSession. When full the least recently used session
+ * is dropped; it is rebuilt on demand the next time that organization is seen.
+ */
+public class OrgSessionStore {
+    private static final String NO_ORG = "";
+
+    private final int maxSessions;
+    private final Function<String, OrgSession> sessionFactory;
+    private final ConcurrentHashMap<String, OrgSession> sessions = new ConcurrentHashMap<>(64);
+
+    public OrgSessionStore(int maxSessions, Function<String, OrgSession> sessionFactory) {
+        this.maxSessions = maxSessions;
+        this.sessionFactory = sessionFactory;
+    }
+
+    public OrgSession get(Organization org) {
+        String hostName = org == null? null: org.getHostName();
+        String key = hostName == null? NO_ORG: hostName;
+
+        OrgSession session = sessions.get(key);
+        if(session == null) {
+            session = sessions.computeIfAbsent(key, k -> sessionFactory.apply(hostName));
+            if(sessions.size() > maxSessions)
+                evictOldest(key);
+        }
+        session.lastAccess = System.nanoTime();
+        return session;
+    }
+
+    public void invalidate(String hostName) {
+        sessions.remove(hostName == null? NO_ORG: hostName);
+    }
+
+    public void clear() {
+        sessions.clear();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    // ----- Private -----
+    private void evictOldest(String keep) {
+        while(sessions.size() > maxSessions) {
+            String oldestKey = null;
+            long oldest = Long.MAX_VALUE;
+            for(Map.Entry<String, OrgSession> entry: sessions.entrySet()) {
+                if(entry.getKey().equals(keep))
+                    continue;
+                long access = entry.getValue().lastAccess;
+                if(access < oldest) {
+                    oldest = access;
+                    oldestKey = entry.getKey();
+                }
+            }
+            if(oldestKey == null)
+                return;
+            sessions.remove(oldestKey);
+        }
+    }
+}
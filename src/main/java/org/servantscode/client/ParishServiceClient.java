@@ -1,8 +1,7 @@
 package org.servantscode.client;
 
-import javax.ws.rs.core.GenericType;
-import javax.ws.rs.core.Response;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class ParishServiceClient extends BaseServiceClient {
@@ -10,12 +9,19 @@ public class ParishServiceClient extends BaseServiceClient {
     public ParishServiceClient() { super("/rest/parish"); }
 
     public Map<String, Object> getParish(int id) {
-        Response response = get("/" + id);
-        return response.readEntity(new GenericType<Map<String, Object>>(){});
+        return getCached("/" + id, ClientJson.MAP_TYPE);
     }
 
     public Map<String, Object> getParishForOrg(int id) {
-        Response response = get("/org/" + id);
-        return response.readEntity(new GenericType<Map<String, Object>>(){});
+        return getCached("/org/" + id, ClientJson.MAP_TYPE);
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> getParishAsync(int id) {
+        return async(() -> getParish(id));
+    }
+
+    public CompletableFuture<Map<String, Object>> getParishForOrgAsync(int id) {
+        return async(() -> getParishForOrg(id));
     }
 }
@@ -0,0 +1,394 @@
+package org.servantscode.client;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/*
+ * Generates a synthetic parish and pushes it through the create* calls of the shared clients, timing every call
+ * per service. Reference data (funds, rooms, equipment, ministries, programs) goes first; families with their
+ * people, relationships, pledges and donations, events, and program sections with their classrooms and
+ * sessions then run concurrently. Work that depends on an earlier create runs on the same task, so nothing
+ * blocks waiting on another task. Data is derived from the seed, so two runs send the same requests.
+ *
+ *   ParishWorkload <prefix> [families] [concurrency]
+ */
+public class ParishWorkload {
+    private static final String[] SURNAMES = {"Smith", "Johnson", "Garcia", "Nguyen", "O'Brien", "Kowalski", "Okafor", "Martinez", "Rossi", "Dubois"};
+    private static final String[] MALE = {"John", "Joseph", "Peter", "Francis", "Michael", "David", "Thomas"};
+    private static final String[] FEMALE = {"Mary", "Anne", "Teresa", "Maria", "Elizabeth", "Clare", "Rose"};
+    private static final String[] ROOM_TYPES = {"CLASS", "MEETING", "SANCTUARY", "OFFICE"};
+    private static final LocalDate BASE_DATE = LocalDate.of(2019, 1, 6);
+
+    private final WorkloadConfig config;
+
+    public ParishWorkload(WorkloadConfig config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) {
+        if(args.length < 1) {
+            System.err.println("Usage: ParishWorkload <prefix> [families] [concurrency]");
+            System.exit(1);
+        }
+
+        WorkloadConfig config = new WorkloadConfig();
+        if(args.length > 1)
+            config.setFamilies(Integer.parseInt(args[1]));
+        if(args.length > 2)
+            config.setConcurrency(Integer.parseInt(args[2]));
+
+        ApiClientFactory.instance().setExternalPrefix(args[0]);
+        System.out.println(new ParishWorkload(config).run());
+        System.exit(0);
+    }
+
+    public WorkloadReport run() {
+        WorkloadReport report = new WorkloadReport();
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(config.getConcurrency(), r -> {
+            Thread t = new Thread(r, "sc-workload-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            Run run = new Run(report, executor);
+
+            CompletableFuture<List<Integer>> funds = run.createAll("fund", config.getFunds(), this::fund,
+                    ServiceClients.funds()::createFund);
+            CompletableFuture<List<Integer>> rooms = run.createAll("room", config.getRooms(), this::room,
+                    ServiceClients.rooms()::createRoom);
+            CompletableFuture<List<Integer>> ministries = run.createAll("ministry", config.getMinistries(), this::ministry,
+                    ServiceClients.ministries()::createMinistry);
+            CompletableFuture<List<Integer>> programs = run.createAll("program", config.getPrograms(), this::program,
+                    ServiceClients.programs()::createProgram);
+            CompletableFuture<List<Integer>> equipment = run.createAll("equipment", config.getEquipment(), this::equipment,
+                    ServiceClients.equipment()::createEquipment);
+            CompletableFuture.allOf(funds, rooms, ministries, programs, equipment).join();
+
+            List<Integer> fundIds = funds.join();
+            List<Integer> roomIds = rooms.join();
+            List<Integer> ministryIds = ministries.join();
+
+            List<CompletableFuture<?>> work = new ArrayList<>(config.getFamilies() + config.getEvents() + 64);
+            for(int i = 0; i < config.getFamilies(); i++) {
+                int index = i;
+                work.add(run.submit(() -> familyTree(run, index, fundIds)));
+            }
+            for(int i = 0; i < config.getEvents(); i++) {
+                int index = i;
+                work.add(run.submit(() -> run.create("event", () -> ServiceClients.events().createEvent(event(index, roomIds, ministryIds)))));
+            }
+            for(int programId: programs.join()) {
+                for(int i = 0; i < config.getSectionsPerProgram(); i++) {
+                    int index = i;
+                    work.add(run.submit(() -> sectionTree(run, programId, index, roomIds)));
+                }
+            }
+            CompletableFuture.allOf(work.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executor.shutdownNow();
+            report.finish();
+        }
+        return report;
+    }
+
+    // ----- Dependent work -----
+    private void familyTree(Run run, int index, List<Integer> fundIds) {
+        Random random = random("family", index);
+        Map<String, Object> data = family(index, random);
+        Map<String, Object> family = run.create("family", () -> ServiceClients.families().createFamily(data));
+        if(family == null)
+            return;
+
+        int familyId = (Integer) family.get("id");
+        String surname = (String) data.get("surname");
+        int size = 1 + random.nextInt(Math.max(1, config.getMaxPeoplePerFamily()));
+
+        List<Integer> members = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {
+            Map<String, Object> member = person(familyId, surname, i, random);
+            Map<String, Object> person = run.create("person", () -> ServiceClients.people().createPerson(member));
+            if(person != null)
+                members.add((Integer) person.get("id"));
+        }
+
+        if(members.size() > 1) {
+            List<Map<String, Object>> links = relationships(members);
+            run.call("relationship", () -> {
+                ServiceClients.relationships().importRelationships(links, true);
+                return Boolean.TRUE;
+            });
+        }
+
+        if(fundIds.isEmpty())
+            return;
+
+        if(random.nextDouble() < config.getPledgeRate()) {
+            Pledge pledge = pledge(familyId, fundIds.get(0), random);
+            run.call("pledge", () -> ServiceClients.pledges().createPledge(pledge));
+        }
+
+        List<Map<String, Object>> donations = donations(familyId, fundIds, random);
+        if(config.isBatchDonations()) {
+            if(!donations.isEmpty()) {
+                run.call("donation", () -> {
+                    BulkResult result = ServiceClients.batchDonations().importDonations(donations.stream());
+                    if(!result.isComplete())
+                        throw new RuntimeException("Donation batch failed: " + result);
+                    return result;
+                });
+            }
+        } else {
+            for(Map<String, Object> donation: donations)
+                run.create("donation", () -> ServiceClients.donations().createDonation(donation));
+        }
+    }
+
+    private void sectionTree(Run run, int programId, int index, List<Integer> roomIds) {
+        Random random = random("section-" + programId, index);
+        Map<String, Object> section = run.create("section", () -> ServiceClients.sections(programId).createSection(section(programId, index)));
+        if(section == null)
+            return;
+
+        int sectionId = (Integer) section.get("id");
+        Map<String, Object> classroom = new HashMap<>(8);
+        classroom.put("name", "Classroom " + (index + 1));
+        classroom.put("sectionId", sectionId);
+        if(!roomIds.isEmpty())
+            classroom.put("roomId", roomIds.get(random.nextInt(roomIds.size())));
+        run.create("classroom", () -> ServiceClients.classrooms(programId, sectionId).createClassroom(classroom));
+
+        ZonedDateTime start = BASE_DATE.atTime(9 + random.nextInt(8), 0).atZone(ZoneOffset.UTC);
+        for(int i = 0; i < config.getSessionsPerSection(); i++) {
+            Map<String, Object> session = new HashMap<>(8);
+            session.put("name", "Session " + (i + 1));
+            session.put("startTime", start.plusWeeks(i).toString());
+            session.put("endTime", start.plusWeeks(i).plusHours(1).toString());
+            run.create("session", () -> ServiceClients.sessions(programId, sectionId).createSession(session));
+        }
+    }
+
+    // ----- Generators -----
+    private Map<String, Object> fund(int index) {
+        Map<String, Object> fund = new HashMap<>(4);
+        fund.put("name", index == 0? "General": "Fund " + index);
+        return fund;
+    }
+
+    private Map<String, Object> room(int index) {
+        Random random = random("room", index);
+        Map<String, Object> room = new HashMap<>(8);
+        room.put("name", "Room " + (index + 1));
+        room.put("type", ROOM_TYPES[random.nextInt(ROOM_TYPES.length)]);
+        room.put("capacity", 10 + random.nextInt(200));
+        return room;
+    }
+
+    private Map<String, Object> equipment(int index) {
+        Map<String, Object> equipment = new HashMap<>(8);
+        equipment.put("name", "Equipment " + (index + 1));
+        equipment.put("manufacturer", "Acme");
+        equipment.put("description", "Synthetic equipment item " + (index + 1));
+        return equipment;
+    }
+
+    private Map<String, Object> ministry(int index) {
+        Map<String, Object> ministry = new HashMap<>(4);
+        ministry.put("name", "Ministry " + (index + 1));
+        ministry.put("description", "Synthetic ministry " + (index + 1));
+        return ministry;
+    }
+
+    private Map<String, Object> program(int index) {
+        Map<String, Object> program = new HashMap<>(4);
+        program.put("name", "Program " + (index + 1));
+        program.put("description", "Synthetic program " + (index + 1));
+        return program;
+    }
+
+    private Map<String, Object> section(int programId, int index) {
+        Map<String, Object> section = new HashMap<>(4);
+        section.put("name", "Section " + (index + 1));
+        section.put("programId", programId);
+        return section;
+    }
+
+    private Map<String, Object> event(int index, List<Integer> roomIds, List<Integer> ministryIds) {
+        Random random = random("event", index);
+        ZonedDateTime start = BASE_DATE.plusDays(random.nextInt(365)).atTime(8 + random.nextInt(12), 0).atZone(ZoneOffset.UTC);
+        ZonedDateTime end = start.plusHours(1 + random.nextInt(3));
+
+        Map<String, Object> event = new HashMap<>(16);
+        event.put("title", "Event " + (index + 1));
+        event.put("description", "Synthetic event " + (index + 1));
+        event.put("startTime", start.toString());
+        event.put("endTime", end.toString());
+        if(!ministryIds.isEmpty())
+            event.put("ministryId", ministryIds.get(random.nextInt(ministryIds.size())));
+        if(!roomIds.isEmpty()) {
+            Map<String, Object> reservation = new HashMap<>(8);
+            reservation.put("resourceType", "ROOM");
+            reservation.put("resourceId", roomIds.get(random.nextInt(roomIds.size())));
+            reservation.put("startTime", start.toString());
+            reservation.put("endTime", end.toString());
+            event.put("reservations", Collections.singletonList(reservation));
+        }
+        return event;
+    }
+
+    private Map<String, Object> family(int index, Random random) {
+        Map<String, Object> address = new HashMap<>(8);
+        address.put("street1", (100 + random.nextInt(9000)) + " Main St");
+        address.put("city", "Springfield");
+        address.put("state", "TX");
+        address.put("zip", 75000 + random.nextInt(999));
+
+        Map<String, Object> family = new HashMap<>(8);
+        family.put("surname", SURNAMES[random.nextInt(SURNAMES.length)]);
+        family.put("homePhone", "555-" + (1000 + random.nextInt(9000)));
+        family.put("envelopeNumber", index + 1);
+        family.put("address", address);
+        return family;
+    }
+
+    private Map<String, Object> person(int familyId, String surname, int position, Random random) {
+        boolean male = position == 0 || (position > 1 && random.nextBoolean());
+        int age = position < 2? 30 + random.nextInt(45): 1 + random.nextInt(25);
+        String given = male? MALE[random.nextInt(MALE.length)]: FEMALE[random.nextInt(FEMALE.length)];
+
+        Map<String, Object> person = new HashMap<>(16);
+        person.put("name", given + " " + surname);
+        person.put("male", male);
+        person.put("birthdate", BASE_DATE.minusYears(age).minusDays(random.nextInt(365)).toString());
+        person.put("email", given.toLowerCase() + "." + familyId + "." + position + "@example.org");
+        person.put("familyId", familyId);
+        person.put("headOfHousehold", position == 0);
+        person.put("memberSince", BASE_DATE.minusYears(random.nextInt(20)).toString());
+        return person;
+    }
+
+    private static List<Map<String, Object>> relationships(List<Integer> members) {
+        List<Map<String, Object>> links = new ArrayList<>(members.size() * 2);
+        int head = members.get(0);
+        links.add(relationship(head, members.get(1), "SPOUSE"));
+        for(int i = 2; i < members.size(); i++) {
+            links.add(relationship(head, members.get(i), "CHILD"));
+            links.add(relationship(members.get(1), members.get(i), "CHILD"));
+        }
+        return links;
+    }
+
+    private static Map<String, Object> relationship(int personId, int otherId, String relationship) {
+        Map<String, Object> link = new HashMap<>(4);
+        link.put("personId", personId);
+        link.put("otherId", otherId);
+        link.put("relationship", relationship);
+        return link;
+    }
+
+    private static Pledge pledge(int familyId, int fundId, Random random) {
+        float monthly = 20 + random.nextInt(50) * 5;
+        Pledge pledge = new Pledge();
+        pledge.setFamilyId(familyId);
+        pledge.setFundId(fundId);
+        pledge.setPledgeType("EGIV");
+        pledge.setPledgeFrequency("MONTHLY");
+        pledge.setPledgeDate(BASE_DATE);
+        pledge.setPledgeStart(BASE_DATE);
+        pledge.setPledgeEnd(BASE_DATE.plusYears(1).minusDays(1));
+        pledge.setPledgeAmount(monthly);
+        pledge.setAnnualPledgeAmount(monthly * 12);
+        return pledge;
+    }
+
+    private List<Map<String, Object>> donations(int familyId, List<Integer> fundIds, Random random) {
+        int count = config.getDonationsPerFamily();
+        List<Map<String, Object>> donations = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            Map<String, Object> donation = new HashMap<>(8);
+            donation.put("familyId", familyId);
+            donation.put("fundId", fundIds.get(random.nextInt(fundIds.size())));
+            donation.put("amount", 5 + random.nextInt(200));
+            donation.put("donationDate", BASE_DATE.plusWeeks(i).toString());
+            donation.put("donationType", "CHECK");
+            donation.put("checkNumber", 1000 + familyId * 100 + i);
+            donations.add(donation);
+        }
+        return donations;
+    }
+
+    private Random random(String kind, int index) {
+        return new Random(config.getSeed() * 1_000_003L + kind.hashCode() * 7919L + index);
+    }
+
+    // ----- Execution -----
+    private static class Run {
+        private final WorkloadReport report;
+        private final ExecutorService executor;
+
+        private Run(WorkloadReport report, ExecutorService executor) {
+            this.report = report;
+            this.executor = executor;
+        }
+
+        private CompletableFuture<Void> submit(Runnable task) {
+            return CompletableFuture.runAsync(task, executor);
+        }
+
+        private CompletableFuture<List<Integer>> createAll(String service, int count, IntFunction<Map<String, Object>> generator,
+                                                           UnaryOperator<Map<String, Object>> creator) {
+            Queue<Integer> ids = new ConcurrentLinkedQueue<>();
+            CompletableFuture<?>[] tasks = new CompletableFuture<?>[count];
+            for(int i = 0; i < count; i++) {
+                Map<String, Object> data = generator.apply(i);
+                tasks[i] = submit(() -> {
+                    Map<String, Object> created = create(service, () -> creator.apply(data));
+                    if(created != null)
+                        ids.add((Integer) created.get("id"));
+                });
+            }
+            return CompletableFuture.allOf(tasks).thenApply(v -> {
+                List<Integer> sorted = new ArrayList<>(ids);
+                Collections.sort(sorted);
+                return sorted;
+            });
+        }
+
+        // Counts a create as failed when it throws or the response carries no id.
+        private Map<String, Object> create(String service, Supplier<Map<String, Object>> call) {
+            Map<String, Object> created = call(service, call);
+            return created != null && created.get("id") instanceof Integer? created: null;
+        }
+
+        private <T> T call(String service, Supplier<T> call) {
+            long start = System.nanoTime();
+            T result = null;
+            try {
+                result = call.get();
+                return result;
+            } catch (RuntimeException e) {
+                return null;
+            } finally {
+                boolean success = result != null && (!(result instanceof Map) || ((Map<?, ?>) result).get("id") instanceof Integer);
+                report.service(service).record(start, System.nanoTime(), success);
+            }
+        }
+    }
+}
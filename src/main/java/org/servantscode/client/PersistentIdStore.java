@@ -0,0 +1,515 @@
+package org.servantscode.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/*
+ * Disk tier for IdCache so import runs start warm. The file is a memory-mapped, append-only log of puts, removes
+ * and per-organization version stamps; opening it replays the log into memory and a torn tail (bad length or
+ * checksum) simply ends the replay. Once dead records outnumber live ones the live set is rewritten to a new
+ * file which replaces the old one.
+ *
+ * Entries are checked two ways: a required max age ignores entries written too long ago, and validate(org, version)
+ * also drops everything held for an organization when the version it was written under changes.
+ *
+ * One store owns the file at a time: a lock on a sibling .lock file is held until close, and a second open fails
+ * fast instead of interleaving appends. Writes after close are ignored, so callers racing a close need no check.
+ *
+ * Record: int length, body, int crc32(body). Body: byte op, long timestamp, op-specific fields; strings are a
+ * short byte length followed by UTF-8.
+ */
+public class PersistentIdStore implements AutoCloseable {
+    private static final int MAGIC = 0x53434944; // SCID
+    private static final int FORMAT = 1;
+    private static final int HEADER = 16;
+    private static final int MIN_CAPACITY = 1 << 20;
+    private static final int COMPACT_MIN_DEAD = 10_000;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte REMOVE_TYPE = 3;
+    private static final byte VERSION = 4;
+
+    private final Path file;
+    private final Map<String, Entry> entries = new HashMap<>(4096);
+    private final Map<String, Set<String>> keysById = new HashMap<>(4096);
+    private final Map<String, OrgVersion> versions = new HashMap<>(16);
+    private final CRC32 crc = new CRC32();
+
+    private final FileChannel lockChannel;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private long deadRecords;
+    private long maxAgeMillis;
+    private boolean closed;
+
+    public PersistentIdStore(Path file, long maxAgeMillis) {
+        this.file = file;
+        this.maxAgeMillis = checkMaxAge(maxAgeMillis);
+        try {
+            lockChannel = FileChannel.open(file.resolveSibling(file.getFileName() + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open id store " + file, e);
+        }
+
+        try {
+            if(tryLock(lockChannel) == null)
+                throw new IllegalStateException("Id store is already open elsewhere: " + file);
+            open();
+            if(shouldCompact())
+                compact();
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            closeQuietly(lockChannel);
+            if(e instanceof IOException)
+                throw new UncheckedIOException("Could not open id store " + file, (IOException) e);
+            throw (RuntimeException) e;
+        }
+    }
+
+    public synchronized int get(String org, String entityType, String name) {
+        Entry entry = entries.get(key(org, entityType, name));
+        if(entry == null)
+            return 0;
+        if(entry.writtenAt + maxAgeMillis < System.currentTimeMillis())
+            return 0;
+        return entry.id;
+    }
+
+    // When the entry stops being served by get; 0 if there is none.
+    public synchronized long expiresAt(String org, String entityType, String name) {
+        Entry entry = entries.get(key(org, entityType, name));
+        return entry == null? 0: entry.writtenAt + maxAgeMillis;
+    }
+
+    public synchronized void put(String org, String entityType, String name, int id) {
+        if(closed)
+            return;
+
+        String key = key(org, entityType, name);
+        Entry existing = entries.get(key);
+        if(existing != null && existing.id == id && existing.writtenAt + maxAgeMillis / 2 > System.currentTimeMillis())
+            return;
+
+        long now = System.currentTimeMillis();
+        append(PUT, now, org, entityType, name, id, 0);
+        if(putEntry(key, new Entry(org, entityType, name, id, now)) != null)
+            deadRecords++;
+        maybeCompact();
+    }
+
+    public synchronized void remove(String org, String entityType, String name) {
+        if(closed || removeEntry(key(org, entityType, name)) == null)
+            return;
+
+        append(REMOVE, System.currentTimeMillis(), org, entityType, name, 0, 0);
+        deadRecords += 2;
+        maybeCompact();
+    }
+
+    // Removes the entry only while it still maps to id, so a newer id written meanwhile survives.
+    public synchronized void remove(String org, String entityType, String name, int id) {
+        Entry entry = entries.get(key(org, entityType, name));
+        if(entry != null && entry.id == id)
+            remove(org, entityType, name);
+    }
+
+    public synchronized void removeId(String org, String entityType, int id) {
+        Set<String> keys = closed? null: keysById.get(idKey(org, entityType, id));
+        if(keys == null)
+            return;
+
+        for(String key: keys.toArray(new String[0])) {
+            Entry entry = removeEntry(key);
+            append(REMOVE, System.currentTimeMillis(), org, entityType, entry.name, 0, 0);
+            deadRecords += 2;
+        }
+        maybeCompact();
+    }
+
+    public synchronized void removeType(String org, String entityType) {
+        if(closed)
+            return;
+
+        long removed = removeMatching(org, entityType);
+        if(removed == 0)
+            return;
+
+        append(REMOVE_TYPE, System.currentTimeMillis(), org, entityType, null, 0, 0);
+        deadRecords += removed + 1;
+        maybeCompact();
+    }
+
+    // Records the data version the organization's ids are valid for. Returns false, and drops every id held
+    // for the organization, when it differs from the version they were written under or none was recorded.
+    public synchronized boolean validate(String org, long version) {
+        if(closed)
+            return false;
+
+        OrgVersion current = versions.get(org);
+        if(current != null && current.version == version)
+            return true;
+
+        long now = System.currentTimeMillis();
+        deadRecords += removeMatching(org, null) + (current != null? 1: 0);
+        append(VERSION, now, org, null, null, 0, version);
+        versions.put(org, new OrgVersion(version, now));
+        maybeCompact();
+        return false;
+    }
+
+    public synchronized void flush() {
+        if(!closed)
+            buffer.force();
+    }
+
+    // Rewrites the live entries and version stamps to a new file and swaps it in.
+    public synchronized void compact() {
+        if(closed)
+            return;
+
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        FileChannel liveChannel = channel;
+        MappedByteBuffer liveBuffer = buffer;
+        int livePosition = position;
+        try {
+            // Appends go to the new file while it is being written; the live file is untouched until the move.
+            Files.deleteIfExists(temp);
+            channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, MIN_CAPACITY);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT);
+            position = HEADER;
+
+            for(Map.Entry<String, OrgVersion> version: versions.entrySet())
+                append(VERSION, version.getValue().writtenAt, version.getKey(), null, null, 0, version.getValue().version);
+            for(Entry entry: entries.values())
+                append(PUT, entry.writtenAt, entry.org, entry.entityType, entry.name, entry.id, 0);
+            buffer.force();
+            channel.close();
+
+            liveChannel.close();
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            entries.clear();
+            keysById.clear();
+            versions.clear();
+            deadRecords = 0;
+            open();
+        } catch (IOException | RuntimeException e) {
+            if(channel != liveChannel && channel != null && channel.isOpen()) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            if(liveChannel.isOpen()) {
+                channel = liveChannel;
+                buffer = liveBuffer;
+                position = livePosition;
+            }
+            throw e instanceof IOException? new UncheckedIOException("Could not compact id store " + file, (IOException) e): (RuntimeException) e;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if(closed)
+            return;
+
+        closed = true;
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close id store " + file, e);
+        } finally {
+            closeQuietly(lockChannel);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // ----- Accessors -----
+    public Path getFile() { return file; }
+    public synchronized long getFileBytes() { return position; }
+    public synchronized long getDeadRecords() { return deadRecords; }
+    public synchronized long getMaxAgeMillis() { return maxAgeMillis; }
+    public synchronized void setMaxAgeMillis(long maxAgeMillis) { this.maxAgeMillis = checkMaxAge(maxAgeMillis); }
+
+    // ----- Private -----
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(MIN_CAPACITY, size));
+
+        if(size == 0 || buffer.getInt(0) == 0) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT);
+            position = HEADER;
+            return;
+        }
+        if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT)
+            throw new IOException("Not an id store: " + file);
+
+        position = HEADER;
+        while(position + 8 <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if(length <= 0 || position + 8L + length > buffer.capacity())
+                break;
+
+            ByteBuffer body = slice(position + 4, length);
+            if(checksum(body.duplicate()) != buffer.getInt(position + 4 + length))
+                break;
+
+            replay(body);
+            position += 8 + length;
+        }
+    }
+
+    private void replay(ByteBuffer body) {
+        byte op = body.get();
+        long timestamp = body.getLong();
+        String org = readString(body);
+        switch (op) {
+            case PUT: {
+                String entityType = readString(body);
+                String name = readString(body);
+                if(putEntry(key(org, entityType, name), new Entry(org, entityType, name, body.getInt(), timestamp)) != null)
+                    deadRecords++;
+                break;
+            }
+            case REMOVE: {
+                String entityType = readString(body);
+                if(removeEntry(key(org, entityType, readString(body))) != null)
+                    deadRecords++;
+                deadRecords++;
+                break;
+            }
+            case REMOVE_TYPE:
+                deadRecords += removeMatching(org, readString(body)) + 1;
+                break;
+            case VERSION: {
+                long version = body.getLong();
+                OrgVersion current = versions.get(org);
+                if(current == null || current.version != version)
+                    deadRecords += removeMatching(org, null);
+                if(current != null)
+                    deadRecords++;
+                versions.put(org, new OrgVersion(version, timestamp));
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    private void append(byte op, long timestamp, String org, String entityType, String name, int id, long version) {
+        byte[] orgBytes = bytes(org);
+        byte[] typeBytes = bytes(entityType);
+        byte[] nameBytes = bytes(name);
+        int length = 1 + 8 + 2 + orgBytes.length;
+        if(op != VERSION)
+            length += 2 + typeBytes.length;
+        if(op == PUT || op == REMOVE)
+            length += 2 + nameBytes.length;
+        if(op == PUT)
+            length += 4;
+        if(op == VERSION)
+            length += 8;
+
+        ensureCapacity(position + 8 + length + 4);
+        ByteBuffer body = slice(position + 4, length);
+        body.put(op).putLong(timestamp);
+        writeString(body, orgBytes);
+        if(op != VERSION)
+            writeString(body, typeBytes);
+        if(op == PUT || op == REMOVE)
+            writeString(body, nameBytes);
+        if(op == PUT)
+            body.putInt(id);
+        if(op == VERSION)
+            body.putLong(version);
+
+        body.flip();
+        buffer.putInt(position + 4 + length, checksum(body));
+        // Length last, so a record torn before this point reads as the end of the log.
+        buffer.putInt(position, length);
+        position += 8 + length;
+    }
+
+    private void ensureCapacity(long required) {
+        if(required <= buffer.capacity())
+            return;
+
+        long capacity = buffer.capacity();
+        while(capacity < required)
+            capacity *= 2;
+        if(capacity > Integer.MAX_VALUE)
+            throw new IllegalStateException("Id store is full: " + file);
+
+        try {
+            buffer.force();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not grow id store " + file, e);
+        }
+    }
+
+    private void maybeCompact() {
+        if(shouldCompact())
+            compact();
+    }
+
+    private boolean shouldCompact() {
+        return deadRecords > COMPACT_MIN_DEAD && deadRecords > entries.size();
+    }
+
+    private long removeMatching(String org, String entityType) {
+        long removed = 0;
+        Iterator<Entry> iter = entries.values().iterator();
+        while(iter.hasNext()) {
+            Entry entry = iter.next();
+            if(entry.org.equals(org) && (entityType == null || entry.entityType.equals(entityType))) {
+                iter.remove();
+                unindex(entry);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    // entries and keysById change together so removeId finds an id's names without a scan.
+    private Entry putEntry(String key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        if(previous != null)
+            unindex(previous);
+        keysById.computeIfAbsent(idKey(entry.org, entry.entityType, entry.id), k -> new HashSet<>(2)).add(key);
+        return previous;
+    }
+
+    private static long checkMaxAge(long maxAgeMillis) {
+        if(maxAgeMillis <= 0)
+            throw new IllegalArgumentException("Id store max age must be positive.");
+        return maxAgeMillis;
+    }
+
+    private Entry removeEntry(String key) {
+        Entry removed = entries.remove(key);
+        if(removed != null)
+            unindex(removed);
+        return removed;
+    }
+
+    private void unindex(Entry entry) {
+        String idKey = idKey(entry.org, entry.entityType, entry.id);
+        Set<String> keys = keysById.get(idKey);
+        if(keys != null && keys.remove(key(entry.org, entry.entityType, entry.name)) && keys.isEmpty())
+            keysById.remove(idKey);
+    }
+
+    // Another process holding the lock returns null; this process holding it throws, so both fail the same way.
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if(channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice();
+    }
+
+    private int checksum(ByteBuffer body) {
+        crc.reset();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static String key(String org, String entityType, String name) {
+        return org + '\u0000' + entityType + '\u0000' + name;
+    }
+
+    private static String idKey(String org, String entityType, int id) {
+        return org + '\u0000' + entityType + '\u0000' + id;
+    }
+
+    private static byte[] bytes(String value) {
+        if(value == null)
+            return new byte[0];
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if(bytes.length > Short.MAX_VALUE)
+            throw new IllegalArgumentException("Value too long for the id store.");
+        return bytes;
+    }
+
+    private static void writeString(ByteBuffer body, byte[] bytes) {
+        body.putShort((short) bytes.length);
+        body.put(bytes);
+    }
+
+    private static String readString(ByteBuffer body) {
+        byte[] bytes = new byte[body.getShort()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class Entry {
+        private final String org;
+        private final String entityType;
+        private final String name;
+        private final int id;
+        private final long writtenAt;
+
+        private Entry(String org, String entityType, String name, int id, long writtenAt) {
+            this.org = org;
+            this.entityType = entityType;
+            this.name = name;
+            this.id = id;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    private static class OrgVersion {
+        private final long version;
+        private final long writtenAt;
+
+        private OrgVersion(long version, long writtenAt) {
+            this.version = version;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
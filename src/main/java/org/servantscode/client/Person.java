@@ -0,0 +1,45 @@
+package org.servantscode.client;
+
+import java.time.LocalDate;
+
+public class Person {
+    private int id;
+    private String name;
+    private boolean male;
+    private LocalDate birthdate;
+    private String email;
+    private int familyId;
+    private boolean headOfHousehold;
+    private LocalDate memberSince;
+    private boolean inactive;
+
+    public Person() {}
+
+    // ----- Accessors -----
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public boolean isMale() { return male; }
+    public void setMale(boolean male) { this.male = male; }
+
+    public LocalDate getBirthdate() { return birthdate; }
+    public void setBirthdate(LocalDate birthdate) { this.birthdate = birthdate; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public int getFamilyId() { return familyId; }
+    public void setFamilyId(int familyId) { this.familyId = familyId; }
+
+    public boolean isHeadOfHousehold() { return headOfHousehold; }
+    public void setHeadOfHousehold(boolean headOfHousehold) { this.headOfHousehold = headOfHousehold; }
+
+    public LocalDate getMemberSince() { return memberSince; }
+    public void setMemberSince(LocalDate memberSince) { this.memberSince = memberSince; }
+
+    public boolean isInactive() { return inactive; }
+    public void setInactive(boolean inactive) { this.inactive = inactive; }
+}
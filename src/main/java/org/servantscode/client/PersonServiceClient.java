@@ -4,29 +4,30 @@ import org.servantscode.commons.StringUtils;
 
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-import static java.util.stream.Collectors.toList;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 
 public class PersonServiceClient extends BaseServiceClient {
 
-    public PersonServiceClient() { super("/rest/person"); }
+    private static final String ENTITY = "person";
 
-    private Map<String, Integer> idCache = new HashMap<>(16);
+    public PersonServiceClient() { super("/rest/person"); }
 
     public Map<String, Object> createPerson(Map<String, Object> data) {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created: " + data.get("name"));
+            events().success("Created: {}", data.get("name"));
         else
-            System.err.println("Failed to create person. Status: " + response.getStatus());
+            events().failure("Failed to create person. Status: {}", response.getStatus());
 
         Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
-        idCache.put((String)resp.get("name"), (Integer)resp.get("id"));
+        idCache().put(ENTITY, (String)resp.get("name"), (Integer)resp.get("id"));
         return resp;
     }
 
@@ -41,9 +42,9 @@ public class PersonServiceClient extends BaseServiceClient {
         Map<String, Object> searchResponse = response.readEntity(new GenericType<Map<String, Object>>(){});
 
         if(response.getStatus() == 200)
-            System.out.println("Got peopleCount: " + searchResponse.get("totalResults"));
+            events().success("Got peopleCount: {}", searchResponse.get("totalResults"));
         else
-            System.err.println("Failed to count people. Status: " + response.getStatus());
+            events().failure("Failed to count people. Status: {}", response.getStatus());
 
         return (Integer) searchResponse.get("totalResults");
     }
@@ -61,59 +62,127 @@ public class PersonServiceClient extends BaseServiceClient {
 
         if(response.getStatus() == 200) {
             Map<String, Object> person = ((List<Map<String, Object>>) searchResponse.get("results")).get(0);
-            System.out.println("Got person: " + person.get("name"));
+            events().success("Got person: {}", person.get("name"));
             return person;
         } else {
-            System.err.println("Failed to count people. Status: " + response.getStatus());
+            events().failure("Failed to count people. Status: {}", response.getStatus());
             throw new RuntimeException("Could not get the person you wanted.");
         }
     }
 
-    public Map<String, Object> getPersonById(int id) {
-        Response response = get("/" + id);
+    public SearchCursor<Map<String, Object>> searchPeople(String search, int pageSize) {
+        HashMap<String, Object> params = new HashMap<>(4);
+        params.put("families", true);
+        if(StringUtils.isSet(search))
+            params.put("search", search);
 
-        if(response.getStatus() == 200) {
-            Map<String, Object> person = response.readEntity(new GenericType<Map<String, Object>>(){});
-            System.out.println("Got person: " + person.get("name"));
-            return person;
-        } else {
-            System.err.println("Failed to get person. Status: " + response.getStatus());
-            throw new RuntimeException("Could not get the person you wanted.");
+        return cursor(params, pageSize);
+    }
+
+    public Stream<Map<String, Object>> streamPeople(String search, int pageSize) {
+        return searchPeople(search, pageSize).stream();
+    }
+
+    public Map<String, Object> getPersonById(int id) {
+        Map<String, Object> person;
+        try {
+            person = getCached("/" + id, ClientJson.MAP_TYPE, true);
+        } catch (RuntimeException e) {
+            events().failure("Failed to get person. {}", e.getMessage());
+            throw new RuntimeException("Could not get the person you wanted.", e);
         }
+
+        events().success("Got person: {}", person.get("name"));
+        return person;
     }
 
     public int getPersonId(String name) {
-        if(idCache.get(name) != null)
-            return idCache.get(name);
+        int cachedId = idCache().get(ENTITY, name);
+        if(cachedId != 0)
+            return cachedId;
 
         Map<String, Object> params = new HashMap<>(8);
         params.put("count", 1);
         params.put("search", name);
 
-        Response response = get(params);
-        Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
+        return coalesce(null, params, () -> {
+            Response response = get(params);
+            Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
 
-        List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
-        if(results.size() == 0)
-            return 0;
+            List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
+            if(results.size() == 0)
+                return 0;
 
-        int id = (int)results.get(0).get("id");
+            int id = (int)results.get(0).get("id");
 
-        idCache.put(name, id);
-        return id;
+            idCache().put(ENTITY, name, id);
+            return id;
+        });
     }
 
     public List<Integer> getPersonIds(String query) {
+        int[] ids = getPersonIdArray(query);
+        List<Integer> results = new ArrayList<>(ids.length);
+        for(int id: ids)
+            results.add(id);
+        return results;
+    }
+
+    public int[] getPersonIdArray(String query) {
         HashMap<String, Object> params = new HashMap<>(4);
         params.put("families", true);
         params.put("count", 0);
         params.put("search", query);
 
-        Response response = get(params);
-        Map<String, Object> searchResponse = response.readEntity(new GenericType<Map<String, Object>>(){});
-        List<Map<String, Object>> results = (List<Map<String, Object>>) searchResponse.get("results");
-        System.out.println("Found " + results.size() + " people for query: " + query);
+        int[] ids = SearchResponseReader.readIntField(get(params), "id");
+        events().success("Found {} people for query: {}", ids.length, query);
+        return ids;
+    }
+
+    // ----- Typed -----
+    public Person createPerson(Person person) {
+        Person created = send("POST", null, person, ClientJson.type(Person.class));
+        idCache().put(ENTITY, created.getName(), created.getId());
+        return created;
+    }
+
+    public Person findPerson(int id) {
+        return send("GET", "/" + id, null, ClientJson.type(Person.class));
+    }
+
+    public SearchResult<Person> searchPeople(String search, int start, int count) {
+        HashMap<String, Object> params = new HashMap<>(8);
+        params.put("families", true);
+        params.put("start", start);
+        params.put("count", count);
+        if(StringUtils.isSet(search))
+            params.put("search", search);
+
+        return send("GET", null, null, ClientJson.searchType(Person.class), params);
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createPersonAsync(Map<String, Object> data) {
+        return async(() -> createPerson(data));
+    }
+
+    public CompletableFuture<Integer> getPeopleCountAsync(String... search) {
+        return async(() -> getPeopleCount(search));
+    }
+
+    public CompletableFuture<Map<String, Object>> getPersonAsync(int offset, String... search) {
+        return async(() -> getPerson(offset, search));
+    }
+
+    public CompletableFuture<Map<String, Object>> getPersonByIdAsync(int id) {
+        return async(() -> getPersonById(id));
+    }
+
+    public CompletableFuture<Integer> getPersonIdAsync(String name) {
+        return async(() -> getPersonId(name));
+    }
 
-        return results.stream().map((result) -> (int)result.get("id")).collect(toList());
+    public CompletableFuture<List<Integer>> getPersonIdsAsync(String query) {
+        return async(() -> getPersonIds(query));
     }
 }
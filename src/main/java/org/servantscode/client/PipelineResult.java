@@ -0,0 +1,79 @@
+package org.servantscode.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PipelineResult {
+    private final Map<String, LongAdder> completed = new LinkedHashMap<>();
+    private final Map<String, LongAdder> failed = new LinkedHashMap<>();
+    private final List<Failure> failures = Collections.synchronizedList(new ArrayList<>());
+    private final long startedAt = System.currentTimeMillis();
+    private volatile long finishedAt = 0;
+
+    /*package*/ void addStage(String stage) {
+        completed.put(stage, new LongAdder());
+        failed.put(stage, new LongAdder());
+    }
+
+    /*package*/ void completed(String stage) {
+        completed.get(stage).increment();
+    }
+
+    /*package*/ void failed(String stage, Object item, Throwable error) {
+        failed.get(stage).increment();
+        failures.add(new Failure(stage, item, error));
+    }
+
+    /*package*/ void finish() {
+        finishedAt = System.currentTimeMillis();
+    }
+
+    public long getCompleted(String stage) {
+        LongAdder count = completed.get(stage);
+        return count == null? 0: count.sum();
+    }
+
+    public long getFailed(String stage) {
+        LongAdder count = failed.get(stage);
+        return count == null? 0: count.sum();
+    }
+
+    public List<Failure> getFailures() {
+        synchronized (failures) {
+            return new ArrayList<>(failures);
+        }
+    }
+
+    public long getElapsedMillis() {
+        return (finishedAt == 0? System.currentTimeMillis(): finishedAt) - startedAt;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        completed.forEach((stage, count) ->
+                out.append(stage).append(": ").append(count.sum()).append(" done, ").append(getFailed(stage)).append(" failed; "));
+        return out.append("elapsed=").append(getElapsedMillis()).append("ms").toString();
+    }
+
+    public static class Failure {
+        private final String stage;
+        private final Object item;
+        private final Throwable error;
+
+        private Failure(String stage, Object item, Throwable error) {
+            this.stage = stage;
+            this.item = item;
+            this.error = error;
+        }
+
+        // ----- Accessors -----
+        public String getStage() { return stage; }
+        public Object getItem() { return item; }
+        public Throwable getError() { return error; }
+    }
+}
@@ -0,0 +1,49 @@
+package org.servantscode.client;
+
+import java.time.LocalDate;
+
+public class Pledge {
+    private int id;
+    private int familyId;
+    private int fundId;
+    private String pledgeType;
+    private String pledgeFrequency;
+    private LocalDate pledgeDate;
+    private LocalDate pledgeStart;
+    private LocalDate pledgeEnd;
+    private float pledgeAmount;
+    private float annualPledgeAmount;
+
+    public Pledge() {}
+
+    // ----- Accessors -----
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public int getFamilyId() { return familyId; }
+    public void setFamilyId(int familyId) { this.familyId = familyId; }
+
+    public int getFundId() { return fundId; }
+    public void setFundId(int fundId) { this.fundId = fundId; }
+
+    public String getPledgeType() { return pledgeType; }
+    public void setPledgeType(String pledgeType) { this.pledgeType = pledgeType; }
+
+    public String getPledgeFrequency() { return pledgeFrequency; }
+    public void setPledgeFrequency(String pledgeFrequency) { this.pledgeFrequency = pledgeFrequency; }
+
+    public LocalDate getPledgeDate() { return pledgeDate; }
+    public void setPledgeDate(LocalDate pledgeDate) { this.pledgeDate = pledgeDate; }
+
+    public LocalDate getPledgeStart() { return pledgeStart; }
+    public void setPledgeStart(LocalDate pledgeStart) { this.pledgeStart = pledgeStart; }
+
+    public LocalDate getPledgeEnd() { return pledgeEnd; }
+    public void setPledgeEnd(LocalDate pledgeEnd) { this.pledgeEnd = pledgeEnd; }
+
+    public float getPledgeAmount() { return pledgeAmount; }
+    public void setPledgeAmount(float pledgeAmount) { this.pledgeAmount = pledgeAmount; }
+
+    public float getAnnualPledgeAmount() { return annualPledgeAmount; }
+    public void setAnnualPledgeAmount(float annualPledgeAmount) { this.annualPledgeAmount = annualPledgeAmount; }
+}
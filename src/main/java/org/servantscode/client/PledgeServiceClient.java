@@ -3,6 +3,7 @@ package org.servantscode.client;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class PledgeServiceClient extends BaseServiceClient {
@@ -14,9 +15,9 @@ public class PledgeServiceClient extends BaseServiceClient {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created pledge for: " + data.get("familyId"));
+            events().success("Created pledge for: {}", data.get("familyId"));
         else
-            System.err.println("Failed to create pledge. Status: " + response.getStatus());
+            events().failure("Failed to create pledge. Status: {}", response.getStatus());
 
         Map<String, Object> pledge = response.readEntity(new GenericType<Map<String, Object>>(){});
         fixFloat(pledge, "pledgeAmount");
@@ -28,4 +29,14 @@ public class PledgeServiceClient extends BaseServiceClient {
         float flt = (float) dbl;
         pledge.put(key, flt);
     }
+
+    // ----- Typed -----
+    public Pledge createPledge(Pledge pledge) {
+        return send("POST", null, pledge, ClientJson.type(Pledge.class));
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createDonationAsync(Map<String, Object> data) {
+        return async(() -> createDonation(data));
+    }
 }
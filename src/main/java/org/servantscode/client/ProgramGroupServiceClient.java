@@ -3,6 +3,7 @@ package org.servantscode.client;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class ProgramGroupServiceClient extends BaseServiceClient {
@@ -13,10 +14,15 @@ public class ProgramGroupServiceClient extends BaseServiceClient {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created program group: " + data.get("name"));
+            events().success("Created program group: {}", data.get("name"));
         else
-            System.err.println("Failed to create program group. Status: " + response.getStatus());
+            events().failure("Failed to create program group. Status: {}", response.getStatus());
 
         return response.readEntity(new GenericType<Map<String, Object>>(){});
     }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createProgramGroupAsync(Map<String, Object> data) {
+        return async(() -> createProgramGroup(data));
+    }
 }
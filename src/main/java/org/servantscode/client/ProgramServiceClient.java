@@ -3,6 +3,7 @@ package org.servantscode.client;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class ProgramServiceClient extends BaseServiceClient {
@@ -13,10 +14,15 @@ public class ProgramServiceClient extends BaseServiceClient {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created program: " + data.get("name"));
+            events().success("Created program: {}", data.get("name"));
         else
-            System.err.println("Failed to create program. Status: " + response.getStatus());
+            events().failure("Failed to create program. Status: {}", response.getStatus());
 
         return response.readEntity(new GenericType<Map<String, Object>>(){});
     }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createProgramAsync(Map<String, Object> data) {
+        return async(() -> createProgram(data));
+    }
 }
@@ -0,0 +1,93 @@
+package org.servantscode.client;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/*
+ * One captured request/response pair. Requests are identified by method and target (path plus query, with the
+ * query parameters sorted so the key does not depend on map iteration order); the request body is kept only
+ * as a checksum.
+ */
+public class RecordedExchange {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final String method;
+    private final String target;
+    private final int requestChecksum;
+    private final int status;
+    private final String contentType;
+    private final long nanos;
+    private final byte[] body;
+
+    public RecordedExchange(String method, String target, int requestChecksum, int status, String contentType, long nanos, byte[] body) {
+        this.method = method;
+        this.target = target;
+        this.requestChecksum = requestChecksum;
+        this.status = status;
+        this.contentType = contentType;
+        this.nanos = nanos;
+        this.body = body == null? EMPTY: body;
+    }
+
+    public static String target(String rawPath, String rawQuery) {
+        if(rawQuery == null || rawQuery.isEmpty())
+            return rawPath;
+
+        String[] params = rawQuery.split("&");
+        Arrays.sort(params);
+        return rawPath + "?" + String.join("&", params);
+    }
+
+    public static int checksum(byte[] body) {
+        if(body == null || body.length == 0)
+            return 0;
+
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        return (int) crc.getValue();
+    }
+
+    public String key() {
+        return key(method, target);
+    }
+
+    public static String key(String method, String target) {
+        return method + " " + target;
+    }
+
+    // ----- Serialization -----
+    /*package*/ void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(method);
+        out.writeUTF(target);
+        out.writeInt(requestChecksum);
+        out.writeShort(status);
+        out.writeUTF(contentType == null? "": contentType);
+        out.writeLong(nanos);
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    /*package*/ static RecordedExchange readFrom(DataInput in) throws IOException {
+        String method = in.readUTF();
+        String target = in.readUTF();
+        int checksum = in.readInt();
+        int status = in.readUnsignedShort();
+        String contentType = in.readUTF();
+        long nanos = in.readLong();
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return new RecordedExchange(method, target, checksum, status, contentType.isEmpty()? null: contentType, nanos, body);
+    }
+
+    // ----- Accessors -----
+    public String getMethod() { return method; }
+    public String getTarget() { return target; }
+    public int getRequestChecksum() { return requestChecksum; }
+    public int getStatus() { return status; }
+    public String getContentType() { return contentType; }
+    public long getNanos() { return nanos; }
+    public byte[] getBody() { return body; }
+}
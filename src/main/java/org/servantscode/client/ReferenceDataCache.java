@@ -0,0 +1,103 @@
+package org.servantscode.client;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.servantscode.commons.Organization;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ * Holds one ReferenceSnapshot per organization. Reads are a map lookup. A missing snapshot is loaded once
+ * (concurrent callers share the load); an expired one keeps being served while a replacement is loaded in the
+ * background and swapped in. Invalidating bumps the org's generation, so a load that started before it is
+ * returned to its caller but never installed.
+ */
+public class ReferenceDataCache {
+    private static final Logger LOG = LogManager.getLogger(ReferenceDataCache.class);
+
+    private final String name;
+    private final String typeField;
+    private final long ttlMillis;
+    private final Supplier<List<Map<String, Object>>> loader;
+    private final ConcurrentHashMap<String, ReferenceSnapshot> snapshots = new ConcurrentHashMap<>(16);
+    private final ConcurrentHashMap<String, Boolean> refreshing = new ConcurrentHashMap<>(16);
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>(16);
+
+    public ReferenceDataCache(String name, String typeField, long ttlMillis, Supplier<List<Map<String, Object>>> loader) {
+        this.name = name;
+        this.typeField = typeField;
+        this.ttlMillis = ttlMillis;
+        this.loader = loader;
+    }
+
+    public ReferenceSnapshot snapshot() {
+        String org = orgKey();
+        ReferenceSnapshot snapshot = snapshots.get(org);
+        if(snapshot == null) {
+            String key = "reference:" + name + "#" + org + "@" + generation(org).get();
+            return ApiClientFactory.instance().singleFlight().execute(key, () -> load(org));
+        }
+
+        if(System.currentTimeMillis() - snapshot.getLoadedAt() > ttlMillis)
+            refreshInBackground(org);
+        return snapshot;
+    }
+
+    public ReferenceSnapshot refresh() {
+        return load(orgKey());
+    }
+
+    public void invalidate() {
+        String org = orgKey();
+        generation(org).incrementAndGet();
+        snapshots.remove(org);
+    }
+
+    public void invalidateAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        snapshots.clear();
+    }
+
+    // ----- Private -----
+    private ReferenceSnapshot load(String org) {
+        AtomicLong generation = generation(org);
+        long started = generation.get();
+        ReferenceSnapshot snapshot = new ReferenceSnapshot(loader.get(), typeField);
+        snapshots.compute(org, (key, current) -> generation.get() == started? snapshot: current);
+        return snapshot;
+    }
+
+    private AtomicLong generation(String org) {
+        return generations.computeIfAbsent(org, key -> new AtomicLong());
+    }
+
+    private void refreshInBackground(String org) {
+        if(refreshing.putIfAbsent(org, Boolean.TRUE) != null)
+            return;
+
+        Runnable refresh = RequestContext.capture().wrap(() -> {
+            try {
+                load(org);
+            } catch (Throwable t) {
+                LOG.warn("Failed to refresh " + name + " reference data.", t);
+            } finally {
+                refreshing.remove(org);
+            }
+        });
+        try {
+            ApiClientFactory.instance().asyncExecutor().execute(refresh);
+        } catch (RuntimeException e) {
+            refreshing.remove(org);
+            throw e;
+        }
+    }
+
+    private static String orgKey() {
+        Organization org = RequestContext.currentOrganization();
+        return org == null || org.getHostName() == null? "": org.getHostName();
+    }
+}
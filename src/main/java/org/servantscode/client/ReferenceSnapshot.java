@@ -0,0 +1,106 @@
+package org.servantscode.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Immutable, fully indexed copy of a reference data set (rooms, funds, ...). Built once per load and then only
+ * read, so lookups need no locking.
+ */
+public class ReferenceSnapshot {
+    private final long loadedAt;
+    private final List<Map<String, Object>> rows;
+    private final Map<Integer, Map<String, Object>> byId;
+    private final Map<String, Map<String, Object>> byName;
+    private final Map<String, List<Map<String, Object>>> byType;
+    private final Map<String, List<String>> namesByType;
+    private final Map<String, List<Integer>> idsByType;
+
+    public ReferenceSnapshot(List<Map<String, Object>> source, String typeField) {
+        this.loadedAt = System.currentTimeMillis();
+
+        List<Map<String, Object>> rows = new ArrayList<>(source.size());
+        Map<Integer, Map<String, Object>> byId = new HashMap<>(source.size() * 2);
+        Map<String, Map<String, Object>> byName = new LinkedHashMap<>(source.size() * 2);
+        Map<String, List<Map<String, Object>>> byType = new HashMap<>(16);
+        Map<String, List<String>> namesByType = new HashMap<>(16);
+        Map<String, List<Integer>> idsByType = new HashMap<>(16);
+
+        for(Map<String, Object> row: source) {
+            Map<String, Object> frozen = Collections.unmodifiableMap(row);
+            rows.add(frozen);
+
+            Object id = row.get("id");
+            Object name = row.get("name");
+            if(id instanceof Integer)
+                byId.put((Integer) id, frozen);
+            if(name instanceof String)
+                byName.putIfAbsent((String) name, frozen);
+
+            Object type = typeField == null? null: row.get(typeField);
+            if(type instanceof String) {
+                byType.computeIfAbsent((String) type, t -> new ArrayList<>()).add(frozen);
+                if(name instanceof String)
+                    namesByType.computeIfAbsent((String) type, t -> new ArrayList<>()).add((String) name);
+                if(id instanceof Integer)
+                    idsByType.computeIfAbsent((String) type, t -> new ArrayList<>()).add((Integer) id);
+            }
+        }
+
+        this.rows = Collections.unmodifiableList(rows);
+        this.byId = Collections.unmodifiableMap(byId);
+        this.byName = Collections.unmodifiableMap(byName);
+        this.byType = freeze(byType);
+        this.namesByType = freeze(namesByType);
+        this.idsByType = freeze(idsByType);
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    public List<Map<String, Object>> all() {
+        return rows;
+    }
+
+    public Map<String, Object> byId(int id) {
+        return byId.get(id);
+    }
+
+    public Map<String, Object> byName(String name) {
+        return byName.get(name);
+    }
+
+    public int idOf(String name) {
+        Map<String, Object> row = byName.get(name);
+        Object id = row == null? null: row.get("id");
+        return id instanceof Integer? (Integer) id: 0;
+    }
+
+    public Set<String> names() {
+        return byName.keySet();
+    }
+
+    public List<Map<String, Object>> ofType(String type) {
+        return byType.getOrDefault(type, Collections.emptyList());
+    }
+
+    public List<String> namesOfType(String type) {
+        return namesByType.getOrDefault(type, Collections.emptyList());
+    }
+
+    public List<Integer> idsOfType(String type) {
+        return idsByType.getOrDefault(type, Collections.emptyList());
+    }
+
+    // ----- Private -----
+    private static <T> Map<String, List<T>> freeze(Map<String, List<T>> index) {
+        index.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        return Collections.unmodifiableMap(index);
+    }
+}
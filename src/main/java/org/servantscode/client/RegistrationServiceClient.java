@@ -3,20 +3,28 @@ package org.servantscode.client;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class RegistrationServiceClient extends BaseServiceClient {
 
-    public RegistrationServiceClient(int id) { super(String.format("/rest/program/%d/registration", id)); }
+    private static final ServiceTemplate TEMPLATE = ServiceTemplate.of("/rest/program/{programId}/registration");
+
+    public RegistrationServiceClient(int id) { super(TEMPLATE, id); }
 
     public Map<String, Object> createRegistration(Map<String, Object> data) {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created program registration: " + data.get("name"));
+            events().success("Created program registration: {}", data.get("name"));
         else
-            System.err.println("Failed to create program registration. Status: " + response.getStatus());
+            events().failure("Failed to create program registration. Status: {}", response.getStatus());
 
         return response.readEntity(new GenericType<Map<String, Object>>(){});
     }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createRegistrationAsync(Map<String, Object> data) {
+        return async(() -> createRegistration(data));
+    }
 }
@@ -1,36 +1,56 @@
 package org.servantscode.client;
 
-import javax.ws.rs.core.GenericType;
+import com.fasterxml.jackson.databind.JavaType;
+
 import javax.ws.rs.core.Response;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class RelationshipServiceClient extends BaseServiceClient {
 
     public RelationshipServiceClient() { super("/rest/relationship"); }
 
-    private Map<String, Integer> idCache = new HashMap<>(16);
+    private static final JavaType RELATIONSHIPS_TYPE = ClientJson.MAPPER.getTypeFactory().constructCollectionType(List.class, ClientJson.MAP_TYPE);
 
     public void createRelationships(List<Map<String, Object>> data, boolean createReciprocals) {
-        HashMap<String, Object> params = new HashMap<>(2);
-        params.put("addReciprocals", createReciprocals);
-
-        Response response = put(data, params);
-
-        if(response.getStatus() == 204)
-            System.out.println("Created relationships");
+        int status = putRelationships(data, createReciprocals);
+        if(status == 204)
+            events().success("Created relationships");
         else
-            System.err.println("Failed to create relationship. Status: " + response.getStatus());
+            events().failure("Failed to create relationship. Status: {}", status);
+    }
+
+    // For bulk loads: a failed write throws so the caller can count it.
+    public void importRelationships(List<Map<String, Object>> data, boolean createReciprocals) {
+        int status = putRelationships(data, createReciprocals);
+        if(status != 204)
+            throw new RuntimeException("Failed to create relationships. Status: " + status);
     }
 
     public List<Map<String, Object>> getRelationships(int id) {
-        Response response = get("/" + id);
+        return getCached("/" + id, RELATIONSHIPS_TYPE);
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Void> createRelationshipsAsync(List<Map<String, Object>> data, boolean createReciprocals) {
+        return asyncRun(() -> createRelationships(data, createReciprocals));
+    }
+
+    public CompletableFuture<List<Map<String, Object>>> getRelationshipsAsync(int id) {
+        return async(() -> getRelationships(id));
+    }
 
-        if(response.getStatus() != 200)
-            System.err.println("Could not find relationships for: " + id);
+    // ----- Private -----
+    private int putRelationships(List<Map<String, Object>> data, boolean createReciprocals) {
+        HashMap<String, Object> params = new HashMap<>(2);
+        params.put("addReciprocals", createReciprocals);
 
-        return response.readEntity(new GenericType<List<Map<String, Object>>>(){});
+        Response response = put(data, params);
+        response.close();
+        evictAllCached();
+        return response.getStatus();
     }
 }
@@ -0,0 +1,171 @@
+package org.servantscode.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Serves a TrafficRecording over HTTP so jobs can run without the real services:
+ *
+ *   ReplayServer server = new ReplayServer(TrafficRecording.load(file), 0).start();
+ *   ApiClientFactory.instance().setExternalPrefix(server.getUrl());
+ *
+ * Latency is either fixed (plus uniform jitter) or the recorded latency scaled by a factor. Errors are
+ * injected at a configured rate, either as a status code or as a connection dropped without a response.
+ * Requests with no recording get a 404.
+ */
+public class ReplayServer implements AutoCloseable {
+    private static final byte[] ERROR_BODY = "{\"error\":\"Injected failure.\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final TrafficRecording recording;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private volatile long latencyMillis = 0;
+    private volatile long jitterMillis = 0;
+    private volatile double recordedLatencyScale = 0;
+    private volatile double errorRate = 0;
+    private volatile int errorStatus = 503;
+    private volatile double dropRate = 0;
+
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public ReplayServer(TrafficRecording recording, int port) {
+        this(recording, port, 64);
+    }
+
+    public ReplayServer(TrafficRecording recording, int port, int threads) {
+        this.recording = recording;
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not bind replay server.", e);
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "sc-replay-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public ReplayServer start() {
+        server.start();
+        return this;
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // ----- Private -----
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            byte[] request = TrafficCapture.readAll(exchange.getRequestBody());
+            String target = RecordedExchange.target(exchange.getRequestURI().getRawPath(), exchange.getRequestURI().getRawQuery());
+            RecordedExchange recorded = recording.find(exchange.getRequestMethod(), target, RecordedExchange.checksum(request));
+
+            delay(recorded);
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if(dropRate > 0 && random.nextDouble() < dropRate) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if(errorRate > 0 && random.nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                respond(exchange, errorStatus, "application/json", ERROR_BODY);
+                return;
+            }
+            if(recorded == null) {
+                misses.incrementAndGet();
+                String message = "{\"error\":\"No recording for " + exchange.getRequestMethod() + " " + target.replace("\"", "'") + "\"}";
+                respond(exchange, 404, "application/json", message.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            served.incrementAndGet();
+            respond(exchange, recorded.getStatus(), recorded.getContentType(), recorded.getBody());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void delay(RecordedExchange recorded) {
+        long millis;
+        if(recordedLatencyScale > 0 && recorded != null)
+            millis = (long) (TimeUnit.NANOSECONDS.toMillis(recorded.getNanos()) * recordedLatencyScale);
+        else
+            millis = latencyMillis;
+        if(jitterMillis > 0)
+            millis += ThreadLocalRandom.current().nextLong(jitterMillis + 1);
+        if(millis <= 0)
+            return;
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        if(contentType != null)
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0? -1: body.length);
+        if(body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    // ----- Accessors -----
+    public TrafficRecording getRecording() { return recording; }
+
+    public long getLatencyMillis() { return latencyMillis; }
+    public void setLatencyMillis(long latencyMillis) { this.latencyMillis = latencyMillis; }
+
+    public long getJitterMillis() { return jitterMillis; }
+    public void setJitterMillis(long jitterMillis) { this.jitterMillis = jitterMillis; }
+
+    public double getRecordedLatencyScale() { return recordedLatencyScale; }
+    public void setRecordedLatencyScale(double recordedLatencyScale) { this.recordedLatencyScale = recordedLatencyScale; }
+
+    public double getErrorRate() { return errorRate; }
+    public void setErrorRate(double errorRate) { this.errorRate = errorRate; }
+
+    public int getErrorStatus() { return errorStatus; }
+    public void setErrorStatus(int errorStatus) { this.errorStatus = errorStatus; }
+
+    public double getDropRate() { return dropRate; }
+    public void setDropRate(double dropRate) { this.dropRate = dropRate; }
+
+    public long getServed() { return served.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getInjectedErrors() { return injectedErrors.get(); }
+    public long getDropped() { return dropped.get(); }
+}
@@ -0,0 +1,81 @@
+package org.servantscode.client;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.servantscode.commons.Organization;
+import org.servantscode.commons.security.OrganizationContext;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+ * Snapshot of the caller's organization and log4j ThreadContext, replayed on the worker thread that executes an
+ * async call. The organization is applied as a client-side override consulted before OrganizationContext, so
+ * requests issued from the worker are sent for the caller's organization. In system mode capturing also makes
+ * sure the caller's token is signed, on the caller's thread, before the work is handed off; presign() repeats that
+ * for long-running work.
+ */
+public class RequestContext {
+    private static final ThreadLocal<Organization> ORGANIZATION = new ThreadLocal<>();
+
+    private final Organization organization;
+    private final Map<String, String> threadContext;
+
+    private RequestContext(Organization organization, Map<String, String> threadContext) {
+        this.organization = organization;
+        this.threadContext = threadContext;
+    }
+
+    public static RequestContext capture() {
+        Organization org = currentOrganization();
+        ApiClientFactory.instance().prepareHandoff(org);
+        return new RequestContext(org, ThreadContext.getImmutableContext());
+    }
+
+    public static Organization currentOrganization() {
+        Organization org = ORGANIZATION.get();
+        return org != null? org: OrganizationContext.getOrganization();
+    }
+
+    public Organization getOrganization() {
+        return organization;
+    }
+
+    // For work that outlives a token: called from a thread carrying the organization before each page, item or
+    // chunk is handed off, it refreshes a system token that is due so the workers keep a valid one.
+    public void presign() {
+        ApiClientFactory.instance().prepareHandoff(organization);
+    }
+
+    public <T> Supplier<T> wrap(Supplier<T> call) {
+        return () -> {
+            Organization previousOrg = ORGANIZATION.get();
+            Map<String, String> previousContext = ThreadContext.getImmutableContext();
+            apply(organization, threadContext);
+            try {
+                return call.get();
+            } finally {
+                apply(previousOrg, previousContext);
+            }
+        };
+    }
+
+    public Runnable wrap(Runnable call) {
+        Supplier<Void> wrapped = wrap(() -> {
+            call.run();
+            return null;
+        });
+        return wrapped::get;
+    }
+
+    // ----- Private -----
+    private static void apply(Organization org, Map<String, String> context) {
+        if(org == null)
+            ORGANIZATION.remove();
+        else
+            ORGANIZATION.set(org);
+
+        ThreadContext.clearMap();
+        if(!context.isEmpty())
+            ThreadContext.putAll(context);
+    }
+}
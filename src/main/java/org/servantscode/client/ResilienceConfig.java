@@ -0,0 +1,39 @@
+package org.servantscode.client;
+
+public class ResilienceConfig {
+    private int maxAttempts = 3;
+    private long baseBackoffMillis = 100;
+    private long maxBackoffMillis = 2000;
+    private int breakerWindowSize = 20;
+    private int breakerMinimumCalls = 10;
+    private double breakerFailureRate = 0.5;
+    private long breakerOpenMillis = 30000;
+    private int breakerHalfOpenProbes = 3;
+
+    public ResilienceConfig() {}
+
+    // ----- Accessors -----
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+
+    public long getBaseBackoffMillis() { return baseBackoffMillis; }
+    public void setBaseBackoffMillis(long baseBackoffMillis) { this.baseBackoffMillis = baseBackoffMillis; }
+
+    public long getMaxBackoffMillis() { return maxBackoffMillis; }
+    public void setMaxBackoffMillis(long maxBackoffMillis) { this.maxBackoffMillis = maxBackoffMillis; }
+
+    public int getBreakerWindowSize() { return breakerWindowSize; }
+    public void setBreakerWindowSize(int breakerWindowSize) { this.breakerWindowSize = breakerWindowSize; }
+
+    public int getBreakerMinimumCalls() { return breakerMinimumCalls; }
+    public void setBreakerMinimumCalls(int breakerMinimumCalls) { this.breakerMinimumCalls = breakerMinimumCalls; }
+
+    public double getBreakerFailureRate() { return breakerFailureRate; }
+    public void setBreakerFailureRate(double breakerFailureRate) { this.breakerFailureRate = breakerFailureRate; }
+
+    public long getBreakerOpenMillis() { return breakerOpenMillis; }
+    public void setBreakerOpenMillis(long breakerOpenMillis) { this.breakerOpenMillis = breakerOpenMillis; }
+
+    public int getBreakerHalfOpenProbes() { return breakerHalfOpenProbes; }
+    public void setBreakerHalfOpenProbes(int breakerHalfOpenProbes) { this.breakerHalfOpenProbes = breakerHalfOpenProbes; }
+}
@@ -0,0 +1,23 @@
+package org.servantscode.client;
+
+public class Room {
+    private int id;
+    private String name;
+    private String type;
+    private int capacity;
+
+    public Room() {}
+
+    // ----- Accessors -----
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+}
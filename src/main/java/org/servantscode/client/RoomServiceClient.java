@@ -3,12 +3,13 @@ package org.servantscode.client;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public class RoomServiceClient extends BaseServiceClient {
 
-    private Map<String, Integer> roomIdCache = new HashMap<>(16);
-    private boolean roomsLoaded = false;
+    private static final String ENTITY = "room";
+    private static final Supplier<List<Map<String, Object>>> LOADER = () -> new RoomServiceClient().loadAllRooms();
 
     public RoomServiceClient() { super("/rest/room"); }
 
@@ -16,62 +17,112 @@ public class RoomServiceClient extends BaseServiceClient {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created: " + data.get("name"));
+            events().success("Created: {}", data.get("name"));
         else
-            System.err.println("Failed to create room. Status: " + response.getStatus());
+            events().failure("Failed to create room. Status: {}", response.getStatus());
 
         Map<String, Object> room = response.readEntity(new GenericType<Map<String, Object>>() {});
-        roomIdCache.put((String)room.get("name"), (Integer)room.get("id"));
+        roomCreated((String)room.get("name"), (Integer)room.get("id"));
         return room;
     }
 
     public int getRoomId(String roomName) {
-        if(roomIdCache.get(roomName) != null)
-            return roomIdCache.get(roomName);
+        int cachedId = idCache().get(ENTITY, roomName);
+        if(cachedId != 0)
+            return cachedId;
+
+        int snapshotId = rooms().snapshot().idOf(roomName);
+        if(snapshotId != 0)
+            return snapshotId;
 
         Map<String, Object> params = new HashMap<>(8);
         params.put("count", 1);
         params.put("search", roomName);
 
-        Response response = get(params);
-        Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
+        return coalesce(null, params, () -> {
+            Response response = get(params);
+            Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
 
-        List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
-        int id = (int)results.get(0).get("id");
+            List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
+            int id = (int)results.get(0).get("id");
 
-        roomIdCache.put(roomName, id);
-        return id;
+            idCache().put(ENTITY, roomName, id);
+            return id;
+        });
     }
 
     public List<String> getClassRooms() {
-        List<Map<String, Object>> results = loadAllRooms();
-        return results.stream().filter((result) -> result.get("type").equals("CLASS")).map((result) -> (String)result.get("name")).collect(Collectors.toList());
+        return new ArrayList<>(rooms().snapshot().namesOfType("CLASS"));
     }
 
     public List<Integer> getClassRoomIds() {
-        List<Map<String, Object>> results = loadAllRooms();
-        return results.stream().filter((result) -> result.get("type").equals("CLASS")).map((result) -> (int)result.get("id")).collect(Collectors.toList());
+        return new ArrayList<>(rooms().snapshot().idsOfType("CLASS"));
     }
 
     public Set<String> getRooms() {
-        if(!roomsLoaded)
-            loadAllRooms();
+        return new HashSet<>(rooms().snapshot().names());
+    }
+
+    public void refreshRooms() {
+        rooms().refresh();
+    }
+
+    // ----- Typed -----
+    public Room createRoom(Room room) {
+        Room created = send("POST", null, room, ClientJson.type(Room.class));
+        roomCreated(created.getName(), created.getId());
+        return created;
+    }
 
-        return roomIdCache.keySet();
+    public List<Room> getAllRooms() {
+        Map<String, Object> params = new HashMap<>(8);
+        params.put("count", 1000);
+
+        List<Room> rooms = new ArrayList<>();
+        SearchResponseReader.<Room>forEachResult(get(params), ClientJson.type(Room.class), rooms::add);
+        return rooms;
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createRoomAsync(Map<String, Object> data) {
+        return async(() -> createRoom(data));
+    }
+
+    public CompletableFuture<Integer> getRoomIdAsync(String roomName) {
+        return async(() -> getRoomId(roomName));
+    }
+
+    public CompletableFuture<List<String>> getClassRoomsAsync() {
+        return async(() -> getClassRooms());
+    }
+
+    public CompletableFuture<List<Integer>> getClassRoomIdsAsync() {
+        return async(() -> getClassRoomIds());
+    }
+
+    public CompletableFuture<Set<String>> getRoomsAsync() {
+        return async(() -> getRooms());
     }
 
     // ----- Private -----
+    private ReferenceDataCache rooms() {
+        return ApiClientFactory.instance().referenceData(ENTITY, "type", LOADER);
+    }
 
     private List<Map<String, Object>> loadAllRooms() {
         Map<String, Object> params = new HashMap<>(8);
         params.put("count", 1000);
 
-        Response response = get(params);
-        Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
-
-        List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
-        results.stream().forEach((result) -> roomIdCache.put((String)result.get("name"), (Integer)result.get("id")));
-        roomsLoaded = true;
+        List<Map<String, Object>> results = new ArrayList<>();
+        SearchResponseReader.forEachResult(get(params), (result) -> {
+            idCache().put(ENTITY, (String)result.get("name"), (Integer)result.get("id"));
+            results.add(result);
+        });
         return results;
     }
+
+    private void roomCreated(String name, Integer id) {
+        idCache().put(ENTITY, name, id);
+        rooms().invalidate();
+    }
 }
@@ -0,0 +1,117 @@
+package org.servantscode.client;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * Lazily walks a search result page by page. While the current page is consumed the next one is already being
+ * fetched, so at most two pages are held in memory and the number of round trips is rows / pageSize. The walk ends
+ * once totalResults rows have been returned or the server sends an empty page; a server that caps the page size
+ * below pageSize is simply asked for more pages.
+ */
+public class SearchCursor<T> implements Iterator<T>, AutoCloseable {
+
+    public interface PageFetcher<T> {
+        SearchResult<T> fetch(int start, int count);
+    }
+
+    private final PageFetcher<T> fetcher;
+    private final int pageSize;
+    private final RequestContext context;
+    private final Executor executor;
+
+    private Iterator<T> current = Collections.emptyIterator();
+    private CompletableFuture<SearchResult<T>> next;
+    private int pendingStart = 0;
+    private boolean exhausted = false;
+
+    public SearchCursor(PageFetcher<T> fetcher, int pageSize) {
+        this(fetcher, pageSize, ApiClientFactory.instance().asyncExecutor());
+    }
+
+    public SearchCursor(PageFetcher<T> fetcher, int pageSize, Executor executor) {
+        if(pageSize <= 0)
+            throw new IllegalArgumentException("Page size must be positive.");
+
+        this.fetcher = fetcher;
+        this.pageSize = pageSize;
+        this.executor = executor;
+        this.context = RequestContext.capture();
+        prefetch(0);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while(!current.hasNext()) {
+            if(next == null)
+                return false;
+
+            SearchResult<T> result = await(next);
+            next = null;
+            List<T> page = result.getResults();
+            int end = pendingStart + page.size();
+            if(page.isEmpty() || (result.getTotalResults() >= 0 && end >= result.getTotalResults()))
+                exhausted = true;
+            else
+                prefetch(end);
+            current = page.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if(!hasNext())
+            throw new NoSuchElementException();
+        return current.next();
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        exhausted = true;
+        current = Collections.emptyIterator();
+        if(next != null) {
+            next.cancel(false);
+            next = null;
+        }
+    }
+
+    // ----- Private -----
+    private void prefetch(int start) {
+        if(exhausted)
+            return;
+
+        pendingStart = start;
+        context.presign();
+        Supplier<SearchResult<T>> fetch = () -> {
+            SearchResult<T> result = fetcher.fetch(start, pageSize);
+            return result == null? new SearchResult<>(): result;
+        };
+        next = CompletableFuture.supplyAsync(context.wrap(fetch), executor);
+    }
+
+    private static <T> T await(CompletableFuture<T> page) {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.servantscode.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * Walks the "results" array of a search response token by token so only one row (or one projected field) is
+ * materialized at a time. Search responses look like {"totalResults": n, "results": [ {...}, ... ]}.
+ */
+public class SearchResponseReader {
+    private static final ObjectMapper MAPPER = ClientJson.MAPPER;
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+    private static final JavaType ROW_TYPE = ClientJson.MAP_TYPE;
+
+    private SearchResponseReader() {}
+
+    // ----- Response based -----
+    public static int forEachResult(Response response, Consumer<Map<String, Object>> consumer) {
+        return forEachResult(response, ROW_TYPE, consumer);
+    }
+
+    public static <T> int forEachResult(Response response, JavaType rowType, Consumer<T> consumer) {
+        try (InputStream in = open(response)) {
+            return forEachResult(in, rowType, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read search response.", e);
+        }
+    }
+
+    public static int[] readIntField(Response response, String field) {
+        try (InputStream in = open(response)) {
+            return readIntField(in, field);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read search response.", e);
+        }
+    }
+
+    public static Stream<Map<String, Object>> streamResults(Response response) {
+        InputStream in = open(response);
+        try {
+            return streamResults(in, ROW_TYPE);
+        } catch (IOException e) {
+            closeQuietly(in);
+            throw new UncheckedIOException("Could not read search response.", e);
+        }
+    }
+
+    // ----- Stream based -----
+    public static int forEachResult(InputStream in, Consumer<Map<String, Object>> consumer) throws IOException {
+        return forEachResult(in, ROW_TYPE, consumer);
+    }
+
+    public static <T> int forEachResult(InputStream in, JavaType rowType, Consumer<T> consumer) throws IOException {
+        int totalResults = -1;
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while(parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if("results".equals(name) && value == JsonToken.START_ARRAY) {
+                    while(parser.nextToken() == JsonToken.START_OBJECT)
+                        consumer.accept(MAPPER.readValue(parser, rowType));
+                } else if("totalResults".equals(name) && value.isNumeric()) {
+                    totalResults = parser.getIntValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return totalResults;
+    }
+
+    public static int[] readIntField(InputStream in, String field) throws IOException {
+        int[] values = new int[64];
+        int count = 0;
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while(parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if(!"results".equals(name) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while(parser.nextToken() == JsonToken.START_OBJECT) {
+                    while(parser.nextToken() == JsonToken.FIELD_NAME) {
+                        boolean match = field.equals(parser.getCurrentName());
+                        JsonToken token = parser.nextToken();
+                        if(match && token.isNumeric()) {
+                            if(count == values.length)
+                                values = Arrays.copyOf(values, count * 2);
+                            values[count++] = parser.getIntValue();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            }
+        }
+        return count == values.length? values: Arrays.copyOf(values, count);
+    }
+
+    public static <T> Stream<T> streamResults(InputStream in, JavaType rowType) throws IOException {
+        JsonParser parser = FACTORY.createParser(in);
+        expect(parser.nextToken(), JsonToken.START_OBJECT);
+        boolean found = false;
+        while(!found && parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if("results".equals(name) && value == JsonToken.START_ARRAY)
+                found = true;
+            else
+                parser.skipChildren();
+        }
+
+        Iterator<T> rows = !found? Collections.emptyIterator(): new Iterator<T>() {
+            private JsonToken next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next == JsonToken.START_OBJECT;
+            }
+
+            @Override
+            public T next() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                try {
+                    T row = MAPPER.readValue(parser, rowType);
+                    next = advance();
+                    return row;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read search result.", e);
+                }
+            }
+
+            private JsonToken advance() {
+                try {
+                    return parser.nextToken();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read search result.", e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    closeQuietly(parser);
+                    closeQuietly(in);
+                });
+    }
+
+    // ----- Private -----
+    private static InputStream open(Response response) {
+        if(response.getStatus() != 200) {
+            response.close();
+            throw new RuntimeException("Search failed. Status: " + response.getStatus());
+        }
+        return response.readEntity(InputStream.class);
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if(actual != expected)
+            throw new IOException("Unexpected search response token: " + actual);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            //Nothing more to do
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.servantscode.client;
+
+import java.util.Collections;
+import java.util.List;
+
+public class SearchResult<T> {
+    private int start;
+    private int count;
+    private int totalResults;
+    private List<T> results = Collections.emptyList();
+
+    public SearchResult() {}
+
+    // ----- Accessors -----
+    public int getStart() { return start; }
+    public void setStart(int start) { this.start = start; }
+
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+
+    public int getTotalResults() { return totalResults; }
+    public void setTotalResults(int totalResults) { this.totalResults = totalResults; }
+
+    public List<T> getResults() { return results; }
+    public void setResults(List<T> results) { this.results = results; }
+}
@@ -9,20 +9,23 @@ import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 
 public class SectionServiceClient extends BaseServiceClient {
 
-    public SectionServiceClient(int programId) { super(String.format("/rest/program/%d/section", programId)); }
+    private static final ServiceTemplate TEMPLATE = ServiceTemplate.of("/rest/program/{programId}/section");
+
+    public SectionServiceClient(int programId) { super(TEMPLATE, programId); }
 
     public Map<String, Object> createSection(Map<String, Object> data) {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created program section: " + data.get("name"));
+            events().success("Created program section: {}", data.get("name"));
         else
-            System.err.println("Failed to create program section. Status: " + response.getStatus());
+            events().failure("Failed to create program section. Status: {}", response.getStatus());
 
         return response.readEntity(new GenericType<Map<String, Object>>(){});
     }
@@ -31,9 +34,9 @@ public class SectionServiceClient extends BaseServiceClient {
         Response response = put(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Updated program section: " + data.get("name"));
+            events().success("Updated program section: {}", data.get("name"));
         else
-            System.err.println("Failed to update program section. Status: " + response.getStatus());
+            events().failure("Failed to update program section. Status: {}", response.getStatus());
 
         return response.readEntity(new GenericType<Map<String, Object>>(){});
     }
@@ -42,12 +45,25 @@ public class SectionServiceClient extends BaseServiceClient {
         Response response = get();
 
         if(response.getStatus() == 200)
-            System.out.println("Got program  sections.");
+            events().success("Got program  sections.");
         else
-            System.err.println("Failed to create program section. Status: " + response.getStatus());
+            events().failure("Failed to create program section. Status: {}", response.getStatus());
 
         Map<String, Object> respData = response.readEntity(new GenericType<Map<String, Object>>(){});
         List<Object> results = (List<Object>)respData.get("results");
         return results.size()>0 ? (Map<String, Object>)results.get(0): null;
     }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createSectionAsync(Map<String, Object> data) {
+        return async(() -> createSection(data));
+    }
+
+    public CompletableFuture<Map<String, Object>> updateSectionAsync(Map<String, Object> data) {
+        return async(() -> updateSection(data));
+    }
+
+    public CompletableFuture<Map<String, Object>> getDefaultSectionAsync() {
+        return async(() -> getDefaultSection());
+    }
 }
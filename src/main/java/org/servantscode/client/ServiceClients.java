@@ -0,0 +1,51 @@
+package org.servantscode.client;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/*
+ * Registry of shared clients. Fixed-path clients hold no per-call state, so one instance of each serves every
+ * thread. Parameterized clients are light views over a shared ServiceTemplate: everything expensive (WebTarget
+ * template, metrics, breaker, limiter) is per resource type and only the path values are per parent.
+ */
+public class ServiceClients {
+    private static final Map<Class<?>, BaseServiceClient> SHARED = new ConcurrentHashMap<>(32);
+
+    private ServiceClients() {}
+
+    @SuppressWarnings("unchecked")
+    public static <T extends BaseServiceClient> T shared(Class<T> type, Supplier<T> factory) {
+        BaseServiceClient client = SHARED.get(type);
+        return (T) (client != null? client: SHARED.computeIfAbsent(type, t -> factory.get()));
+    }
+
+    // ----- Fixed path -----
+    public static PersonServiceClient people() { return shared(PersonServiceClient.class, PersonServiceClient::new); }
+    public static FamilyServiceClient families() { return shared(FamilyServiceClient.class, FamilyServiceClient::new); }
+    public static RelationshipServiceClient relationships() { return shared(RelationshipServiceClient.class, RelationshipServiceClient::new); }
+    public static ParishServiceClient parishes() { return shared(ParishServiceClient.class, ParishServiceClient::new); }
+    public static ProgramServiceClient programs() { return shared(ProgramServiceClient.class, ProgramServiceClient::new); }
+    public static ProgramGroupServiceClient programGroups() { return shared(ProgramGroupServiceClient.class, ProgramGroupServiceClient::new); }
+    public static MinistryServiceClient ministries() { return shared(MinistryServiceClient.class, MinistryServiceClient::new); }
+    public static EnrollmentServiceClient enrollments() { return shared(EnrollmentServiceClient.class, EnrollmentServiceClient::new); }
+    public static NoteServiceClient notes() { return shared(NoteServiceClient.class, NoteServiceClient::new); }
+    public static RoomServiceClient rooms() { return shared(RoomServiceClient.class, RoomServiceClient::new); }
+    public static EquipmentServiceClient equipment() { return shared(EquipmentServiceClient.class, EquipmentServiceClient::new); }
+    public static EventServiceClient events() { return shared(EventServiceClient.class, EventServiceClient::new); }
+    public static FundServiceClient funds() { return shared(FundServiceClient.class, FundServiceClient::new); }
+    public static DonationServiceClient donations() { return shared(DonationServiceClient.class, DonationServiceClient::new); }
+    public static BatchDonationServiceClient batchDonations() { return shared(BatchDonationServiceClient.class, BatchDonationServiceClient::new); }
+    public static PledgeServiceClient pledges() { return shared(PledgeServiceClient.class, PledgeServiceClient::new); }
+    public static BaptismServiceClient baptisms() { return shared(BaptismServiceClient.class, BaptismServiceClient::new); }
+    public static ConfirmationServiceClient confirmations() { return shared(ConfirmationServiceClient.class, ConfirmationServiceClient::new); }
+    public static MarriageServiceClient marriages() { return shared(MarriageServiceClient.class, MarriageServiceClient::new); }
+
+    // ----- Templated path -----
+    public static SectionServiceClient sections(int programId) { return new SectionServiceClient(programId); }
+    public static SessionServiceClient sessions(int programId, int sectionId) { return new SessionServiceClient(programId, sectionId); }
+    public static ClassroomServiceClient classrooms(int programId, int sectionId) { return new ClassroomServiceClient(programId, sectionId); }
+    public static RegistrationServiceClient registrations(int programId) { return new RegistrationServiceClient(programId); }
+    public static AttendanceServiceClient attendance(int programId) { return new AttendanceServiceClient(programId); }
+    public static MinistryRoleServiceClient ministryRoles(int ministryId) { return new MinistryRoleServiceClient(ministryId); }
+}
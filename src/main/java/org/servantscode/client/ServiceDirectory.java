@@ -0,0 +1,88 @@
+package org.servantscode.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/*
+ * Maps service path prefixes to pools of endpoints for internal (in-cluster) access. Loaded from properties of the form:
+ *
+ *   /rest/person=http://person-svc-1:8080,http://person-svc-2:8080
+ *   /rest/person.strategy=POWER_OF_TWO
+ *   strategy=ROUND_ROBIN
+ *
+ * Requests resolve to the longest configured prefix, so a "/rest" entry acts as a catch-all.
+ */
+public class ServiceDirectory {
+    public static final String DEFAULT_RESOURCE = "/service-directory.properties";
+
+    private final Map<String, ServicePool> pools;
+
+    public ServiceDirectory(Map<String, ServicePool> pools) {
+        this.pools = Collections.unmodifiableMap(new HashMap<>(pools));
+    }
+
+    public static ServiceDirectory load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in);
+        }
+    }
+
+    public static ServiceDirectory load(InputStream in) throws IOException {
+        Properties props = new Properties();
+        props.load(in);
+        return load(props);
+    }
+
+    public static ServiceDirectory load(Properties props) {
+        BalancingStrategy defaultStrategy = BalancingStrategy.valueOf(props.getProperty("strategy", "ROUND_ROBIN").trim());
+
+        Map<String, ServicePool> pools = new HashMap<>();
+        for(String key: props.stringPropertyNames()) {
+            if(!key.startsWith("/") || key.endsWith(".strategy"))
+                continue;
+
+            List<String> urls = new ArrayList<>();
+            for(String url: props.getProperty(key).split(",")) {
+                if(!url.trim().isEmpty())
+                    urls.add(url.trim());
+            }
+
+            String strategy = props.getProperty(key + ".strategy");
+            pools.put(key, new ServicePool(key, urls, strategy == null? defaultStrategy: BalancingStrategy.valueOf(strategy.trim())));
+        }
+        return new ServiceDirectory(pools);
+    }
+
+    public static ServiceDirectory defaults() {
+        try (InputStream in = ServiceDirectory.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if(in == null)
+                throw new IllegalStateException("Missing service directory resource: " + DEFAULT_RESOURCE);
+            return load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read service directory resource: " + DEFAULT_RESOURCE, e);
+        }
+    }
+
+    public ServicePool resolve(String service) {
+        String prefix = service;
+        while(!prefix.isEmpty()) {
+            ServicePool pool = pools.get(prefix);
+            if(pool != null)
+                return pool;
+            prefix = prefix.substring(0, Math.max(0, prefix.lastIndexOf('/')));
+        }
+        throw new IllegalStateException("No endpoints configured for service: " + service);
+    }
+
+    public Map<String, ServicePool> getPools() {
+        return pools;
+    }
+}
@@ -0,0 +1,71 @@
+package org.servantscode.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * One replica of a service. Tracks what the balancer needs: requests in flight, a smoothed latency and whether
+ * the endpoint is currently ejected after repeated failures.
+ */
+public class ServiceEndpoint {
+    private final String url;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long latencyNanos = 0;
+    private volatile long ejectedUntil = 0;
+    private volatile int ejections = 0;
+
+    public ServiceEndpoint(String url) {
+        this.url = url.endsWith("/")? url.substring(0, url.length() - 1): url;
+    }
+
+    public boolean isAvailable(long nowMillis) {
+        return ejectedUntil <= nowMillis;
+    }
+
+    // Cost used by power-of-two-choices: expected latency scaled by the queue already waiting on this endpoint.
+    /*package*/ double cost() {
+        long latency = latencyNanos == 0? 1: latencyNanos;
+        return (double) latency * (outstanding.get() + 1);
+    }
+
+    /*package*/ void started() {
+        outstanding.incrementAndGet();
+    }
+
+    /*package*/ void succeeded(long nanos) {
+        outstanding.decrementAndGet();
+        long current = latencyNanos;
+        latencyNanos = current == 0? nanos: current + (nanos - current) / 8;
+        consecutiveFailures.set(0);
+        ejections = 0;
+    }
+
+    // Returns true when this failure ejected the endpoint.
+    /*package*/ boolean failed(int threshold, long baseEjectionMillis, long maxEjectionMillis) {
+        outstanding.decrementAndGet();
+        if(consecutiveFailures.incrementAndGet() < threshold)
+            return false;
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if(ejectedUntil > now)
+                return false;
+            long duration = Math.min(maxEjectionMillis, baseEjectionMillis << Math.min(ejections, 20));
+            ejectedUntil = now + duration;
+            ejections++;
+            return true;
+        }
+    }
+
+    // ----- Accessors -----
+    public String getUrl() { return url; }
+    public int getOutstanding() { return outstanding.get(); }
+    public long getLatencyMicros() { return latencyNanos / 1000; }
+    public int getConsecutiveFailures() { return consecutiveFailures.get(); }
+    public long getEjectedUntil() { return ejectedUntil; }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+}
@@ -0,0 +1,56 @@
+package org.servantscode.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Calls, errors and latency for one service during a workload run. Throughput is measured over the window
+ * between the first call starting and the last one finishing, so services driven in different phases are
+ * comparable.
+ */
+public class ServiceLoad {
+    private final String service;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong firstStart = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastEnd = new AtomicLong(Long.MIN_VALUE);
+
+    public ServiceLoad(String service) {
+        this.service = service;
+    }
+
+    public void record(long start, long end, boolean success) {
+        latency.recordNanos(end - start);
+        calls.increment();
+        if(!success)
+            errors.increment();
+        firstStart.accumulateAndGet(start, Math::min);
+        lastEnd.accumulateAndGet(end, Math::max);
+    }
+
+    public double getThroughput() {
+        long window = lastEnd.get() - firstStart.get();
+        return window <= 0? 0: calls.sum() * (double) TimeUnit.SECONDS.toNanos(1) / window;
+    }
+
+    public double getErrorRate() {
+        long total = calls.sum();
+        return total == 0? 0: (double) errors.sum() / total;
+    }
+
+    @Override
+    public String toString() {
+        HistogramSnapshot snapshot = latency.snapshot();
+        return String.format("%-12s calls=%-7d errors=%-5d (%.1f%%) %8.1f/s p50=%dus p90=%dus p99=%dus max=%dus",
+                service, calls.sum(), errors.sum(), getErrorRate() * 100, getThroughput(),
+                snapshot.percentileMicros(50), snapshot.percentileMicros(90), snapshot.percentileMicros(99), snapshot.getMaxMicros());
+    }
+
+    // ----- Accessors -----
+    public String getService() { return service; }
+    public long getCalls() { return calls.sum(); }
+    public long getErrors() { return errors.sum(); }
+    public HistogramSnapshot getLatency() { return latency.snapshot(); }
+}
@@ -0,0 +1,96 @@
+package org.servantscode.client;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * The replicas serving one path prefix. Ejected endpoints are skipped until their ejection expires; if every
+ * endpoint is ejected the pool still routes to the one due back soonest rather than failing outright.
+ */
+public class ServicePool {
+    private static final Logger LOG = LogManager.getLogger(ServicePool.class);
+
+    private final String prefix;
+    private final List<ServiceEndpoint> endpoints;
+    private final BalancingStrategy strategy;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private volatile int failureThreshold = 3;
+    private volatile long baseEjectionMillis = 10_000;
+    private volatile long maxEjectionMillis = 300_000;
+
+    public ServicePool(String prefix, List<String> urls, BalancingStrategy strategy) {
+        if(urls.isEmpty())
+            throw new IllegalArgumentException("No endpoints given for service: " + prefix);
+
+        List<ServiceEndpoint> endpoints = new ArrayList<>(urls.size());
+        for(String url: urls)
+            endpoints.add(new ServiceEndpoint(url));
+
+        this.prefix = prefix;
+        this.endpoints = Collections.unmodifiableList(endpoints);
+        this.strategy = strategy;
+    }
+
+    public ServiceEndpoint choose() {
+        if(endpoints.size() == 1)
+            return endpoints.get(0);
+
+        long now = System.currentTimeMillis();
+        List<ServiceEndpoint> available = endpoints;
+        for(ServiceEndpoint endpoint: endpoints) {
+            if(!endpoint.isAvailable(now)) {
+                available = availableEndpoints(now);
+                break;
+            }
+        }
+
+        if(available.isEmpty())
+            return soonestReinstated();
+        return strategy.choose(available, sequence.getAndIncrement());
+    }
+
+    public void configureEjection(int failureThreshold, long baseEjectionMillis, long maxEjectionMillis) {
+        this.failureThreshold = failureThreshold;
+        this.baseEjectionMillis = baseEjectionMillis;
+        this.maxEjectionMillis = maxEjectionMillis;
+    }
+
+    /*package*/ void reportSuccess(ServiceEndpoint endpoint, long nanos) {
+        endpoint.succeeded(nanos);
+    }
+
+    /*package*/ void reportFailure(ServiceEndpoint endpoint) {
+        if(endpoint.failed(failureThreshold, baseEjectionMillis, maxEjectionMillis) && endpoints.size() > 1)
+            LOG.warn("Ejected " + endpoint + " from " + prefix + " after " + endpoint.getConsecutiveFailures() + " failures.");
+    }
+
+    // ----- Accessors -----
+    public String getPrefix() { return prefix; }
+    public List<ServiceEndpoint> getEndpoints() { return endpoints; }
+    public BalancingStrategy getStrategy() { return strategy; }
+
+    // ----- Private -----
+    private List<ServiceEndpoint> availableEndpoints(long now) {
+        List<ServiceEndpoint> available = new ArrayList<>(endpoints.size());
+        for(ServiceEndpoint endpoint: endpoints) {
+            if(endpoint.isAvailable(now))
+                available.add(endpoint);
+        }
+        return available;
+    }
+
+    private ServiceEndpoint soonestReinstated() {
+        ServiceEndpoint soonest = endpoints.get(0);
+        for(ServiceEndpoint endpoint: endpoints) {
+            if(endpoint.getEjectedUntil() < soonest.getEjectedUntil())
+                soonest = endpoint;
+        }
+        return soonest;
+    }
+}
@@ -0,0 +1,85 @@
+package org.servantscode.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Parsed service path such as "/rest/program/{programId}/section". One instance per distinct template is shared by
+ * every client built from it, so the metrics name, breaker, limiter and WebTarget template are per resource type
+ * rather than per parent id.
+ */
+public class ServiceTemplate {
+    private static final Map<String, ServiceTemplate> TEMPLATES = new ConcurrentHashMap<>(64);
+
+    private final String template;
+    private final List<String> names;
+    private final String metricsName;
+
+    private ServiceTemplate(String template) {
+        List<String> names = new ArrayList<>(2);
+        int start = template.indexOf('{');
+        while(start >= 0) {
+            int end = template.indexOf('}', start);
+            if(end < 0)
+                throw new IllegalArgumentException("Unterminated path parameter in: " + template);
+            names.add(template.substring(start + 1, end));
+            start = template.indexOf('{', end);
+        }
+
+        this.template = template;
+        this.names = Collections.unmodifiableList(names);
+        this.metricsName = names.isEmpty()? template.replaceAll("/\\d+(?=/|$)", "/{id}"): template;
+    }
+
+    public static ServiceTemplate of(String template) {
+        ServiceTemplate parsed = TEMPLATES.get(template);
+        return parsed != null? parsed: TEMPLATES.computeIfAbsent(template, ServiceTemplate::new);
+    }
+
+    public String resolve(Object... values) {
+        if(names.isEmpty())
+            return template;
+        checkArity(values);
+
+        StringBuilder path = new StringBuilder(template.length() + 16);
+        int last = 0;
+        for(Object value: values) {
+            int start = template.indexOf('{', last);
+            path.append(template, last, start).append(value);
+            last = template.indexOf('}', start) + 1;
+        }
+        return path.append(template, last, template.length()).toString();
+    }
+
+    public Map<String, Object> bind(Object... values) {
+        checkArity(values);
+        Map<String, Object> bound = new HashMap<>(names.size() * 2);
+        for(int i = 0; i < values.length; i++)
+            bound.put(names.get(i), values[i]);
+        return bound;
+    }
+
+    public boolean isParameterized() {
+        return !names.isEmpty();
+    }
+
+    // ----- Accessors -----
+    public String getTemplate() { return template; }
+    public List<String> getNames() { return names; }
+    public String getMetricsName() { return metricsName; }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    // ----- Private -----
+    private void checkArity(Object[] values) {
+        if(values.length != names.size())
+            throw new IllegalArgumentException("Expected " + names.size() + " path parameters for " + template + " but got " + values.length);
+    }
+}
@@ -6,25 +6,28 @@ import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.chrono.ChronoLocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 
 public class SessionServiceClient extends BaseServiceClient {
 
+    private static final ServiceTemplate TEMPLATE = ServiceTemplate.of("/rest/program/{programId}/section/{sectionId}/session");
+
     public SessionServiceClient(int programId, int sectionId) {
-        super(String.format("/rest/program/%d/section/%d/session", programId, sectionId));
+        super(TEMPLATE, programId, sectionId);
     }
 
     public Map<String, Object> createSession(Map<String, Object> data) {
         Response response = post(data);
 
         if(response.getStatus() == 200)
-            System.out.println("Created program session: " + data.get("name"));
+            events().success("Created program session: {}", data.get("name"));
         else
-            System.err.println("Failed to create program session. Status: " + response.getStatus());
+            events().failure("Failed to create program session. Status: {}", response.getStatus());
 
         return response.readEntity(new GenericType<Map<String, Object>>(){});
     }
@@ -34,10 +37,21 @@ public class SessionServiceClient extends BaseServiceClient {
         Map<String, Object> params = new HashMap<>(8);
         params.put("count", 0);
 
-        Response response = get(params);
-        Map<String, Object> resp = response.readEntity(new GenericType<Map<String, Object>>(){});
+        LocalDate today = LocalDate.now();
+        List<Map<String, Object>> results = new ArrayList<>();
+        SearchResponseReader.forEachResult(get(params), (result) -> {
+            if(today.isAfter(ChronoLocalDate.from(ZonedDateTime.parse((CharSequence) result.get("startTime"), DateTimeFormatter.ISO_ZONED_DATE_TIME))))
+                results.add(result);
+        });
+        return results;
+    }
+
+    // ----- Async -----
+    public CompletableFuture<Map<String, Object>> createSessionAsync(Map<String, Object> data) {
+        return async(() -> createSession(data));
+    }
 
-        List<Map<String, Object>> results = (List<Map<String, Object>>) resp.get("results");
-        return results.stream().filter((result) -> LocalDate.now().isAfter(ChronoLocalDate.from(ZonedDateTime.parse((CharSequence) result.get("startTime"), DateTimeFormatter.ISO_ZONED_DATE_TIME)))).collect(Collectors.toList());
+    public CompletableFuture<List<Map<String, Object>>> getPastSessionsAsync() {
+        return async(() -> getPastSessions());
     }
 }
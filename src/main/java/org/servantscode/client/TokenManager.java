@@ -0,0 +1,176 @@
+package org.servantscode.client;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/*
+ * Caches a bearer token until shortly before its exp claim. Inside the refresh window the current token keeps
+ * being handed out while a replacement is fetched in the background; once it has expired callers block, but
+ * all of them wait on the same in-flight refresh. Sources that depend on the caller's thread state can be given
+ * a caller-runs executor; the refresh then happens once per token lifetime on whichever request notices it.
+ *
+ * Such a source can also be given a check for whether the current thread is able to refresh. Threads that are not
+ * keep the current token until it expires and never start a refresh. A failed refresh is not retried for a few
+ * seconds; meanwhile the current token keeps being served, or callers fail fast once it has expired.
+ */
+public class TokenManager {
+    private static final Logger LOG = LogManager.getLogger(TokenManager.class);
+    private static final long FAILED_REFRESH_BACKOFF_MILLIS = 5_000;
+
+    private static final Executor REFRESHER = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "sc-token-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Supplier<String> tokenSource;
+    private final Executor refresher;
+    private final BooleanSupplier canRefresh;
+    private final long refreshAheadMillis;
+    private final long defaultLifetimeMillis;
+
+    private volatile CachedToken current;
+    private final AtomicReference<CompletableFuture<CachedToken>> inFlight = new AtomicReference<>();
+    private volatile long retryAt;
+    private volatile Throwable lastFailure;
+
+    public TokenManager(Supplier<String> tokenSource) {
+        this(tokenSource, REFRESHER);
+    }
+
+    public TokenManager(Supplier<String> tokenSource, Executor refresher) {
+        this(tokenSource, refresher, 60_000, 300_000);
+    }
+
+    public TokenManager(Supplier<String> tokenSource, Executor refresher, BooleanSupplier canRefresh) {
+        this(tokenSource, refresher, canRefresh, 60_000, 300_000);
+    }
+
+    public TokenManager(Supplier<String> tokenSource, Executor refresher, long refreshAheadMillis, long defaultLifetimeMillis) {
+        this(tokenSource, refresher, () -> true, refreshAheadMillis, defaultLifetimeMillis);
+    }
+
+    public TokenManager(Supplier<String> tokenSource, Executor refresher, BooleanSupplier canRefresh,
+                        long refreshAheadMillis, long defaultLifetimeMillis) {
+        this.tokenSource = tokenSource;
+        this.refresher = refresher;
+        this.canRefresh = canRefresh;
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.defaultLifetimeMillis = defaultLifetimeMillis;
+    }
+
+    public String getToken() {
+        CachedToken token = current;
+        long now = System.currentTimeMillis();
+        if(token != null && now < token.refreshAt)
+            return token.value;
+
+        boolean valid = token != null && now < token.expiresAt;
+        CompletableFuture<CachedToken> refresh = inFlight.get();
+        if(refresh == null) {
+            if(now < retryAt) {
+                if(valid)
+                    return token.value;
+                throw new IllegalStateException("Token refresh failed recently; not retrying yet.", lastFailure);
+            }
+            if(!canRefresh.getAsBoolean()) {
+                if(valid)
+                    return token.value;
+                throw new IllegalStateException("Token has expired and cannot be refreshed on this thread.");
+            }
+            refresh = refresh();
+        }
+        if(valid)
+            return token.value;
+
+        try {
+            return refresh.join().value;
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    public void setToken(String token) {
+        current = token == null? null: decode(token);
+        retryAt = 0;
+    }
+
+    public void invalidate() {
+        current = null;
+    }
+
+    // ----- Private -----
+    private CompletableFuture<CachedToken> refresh() {
+        while(true) {
+            CompletableFuture<CachedToken> existing = inFlight.get();
+            if(existing != null)
+                return existing;
+
+            CompletableFuture<CachedToken> mine = new CompletableFuture<>();
+            if(!inFlight.compareAndSet(null, mine))
+                continue;
+
+            refresher.execute(() -> {
+                try {
+                    CachedToken token = decode(tokenSource.get());
+                    current = token;
+                    retryAt = 0;
+                    mine.complete(token);
+                } catch (Throwable t) {
+                    LOG.warn("Failed to refresh token; retrying in " + FAILED_REFRESH_BACKOFF_MILLIS + "ms.", t);
+                    lastFailure = t;
+                    retryAt = System.currentTimeMillis() + FAILED_REFRESH_BACKOFF_MILLIS;
+                    mine.completeExceptionally(t);
+                } finally {
+                    inFlight.compareAndSet(mine, null);
+                }
+            });
+            return mine;
+        }
+    }
+
+    // Anything that is not a JWT (an error body, say) is rejected rather than cached. Tokens without an exp
+    // claim are kept for the default lifetime.
+    private CachedToken decode(String token) {
+        if(token == null)
+            throw new IllegalArgumentException("No token returned.");
+
+        long now = System.currentTimeMillis();
+        long expiresAt = now + defaultLifetimeMillis;
+        try {
+            Date exp = JWT.decode(token).getExpiresAt();
+            if(exp != null)
+                expiresAt = exp.getTime();
+        } catch (JWTDecodeException e) {
+            throw new IllegalArgumentException("Token is not a decodable JWT.", e);
+        }
+
+        long refreshAt = Math.max(now, expiresAt - Math.min(refreshAheadMillis, (expiresAt - now) / 2));
+        return new CachedToken(token, expiresAt, refreshAt);
+    }
+
+    private static class CachedToken {
+        private final String value;
+        private final long expiresAt;
+        private final long refreshAt;
+
+        private CachedToken(String value, long expiresAt, long refreshAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAt;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.servantscode.client;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Appends captured exchanges to a gzipped binary file: a magic number and version, then one record per
+ * exchange until end of stream. Read back with TrafficRecording.
+ */
+public class TrafficCapture implements AutoCloseable {
+    /*package*/ static final int MAGIC = 0x53435252; // SCRR
+    /*package*/ static final int VERSION = 1;
+
+    private final Path file;
+    private final DataOutputStream out;
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private boolean closed;
+
+    public TrafficCapture(Path file) {
+        this.file = file;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file), 65536)));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open capture file " + file, e);
+        }
+    }
+
+    public synchronized void record(RecordedExchange exchange) {
+        if(closed)
+            return;
+
+        try {
+            exchange.writeTo(out);
+            recorded.incrementAndGet();
+        } catch (IOException e) {
+            failed.incrementAndGet();
+        }
+    }
+
+    public synchronized void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if(closed)
+            return;
+
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close capture file " + file, e);
+        }
+    }
+
+    /*package*/ static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        byte[] chunk = new byte[8192];
+        int read;
+        while((read = in.read(chunk)) > 0)
+            buffer.write(chunk, 0, read);
+        return buffer.toByteArray();
+    }
+
+    // ----- Accessors -----
+    public Path getFile() { return file; }
+    public long getRecorded() { return recorded.get(); }
+    public long getFailed() { return failed.get(); }
+}
@@ -0,0 +1,84 @@
+package org.servantscode.client;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/*
+ * A loaded capture file, indexed for replay. Exchanges sharing a key are served in recorded order and wrap
+ * around, so a recording of one import run can drive many. When a request body checksum matches one of the
+ * exchanges for its key that one is preferred.
+ */
+public class TrafficRecording {
+    private final List<RecordedExchange> exchanges;
+    private final Map<String, Entry> byKey = new HashMap<>();
+
+    private TrafficRecording(List<RecordedExchange> exchanges) {
+        this.exchanges = Collections.unmodifiableList(exchanges);
+        for(RecordedExchange exchange: exchanges)
+            byKey.computeIfAbsent(exchange.key(), k -> new Entry()).exchanges.add(exchange);
+    }
+
+    public static TrafficRecording load(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read recording " + file, e);
+        }
+    }
+
+    public static TrafficRecording load(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in, 65536)));
+        if(data.readInt() != TrafficCapture.MAGIC)
+            throw new IOException("Not a traffic recording.");
+        int version = data.readUnsignedShort();
+        if(version != TrafficCapture.VERSION)
+            throw new IOException("Unsupported recording version: " + version);
+
+        List<RecordedExchange> exchanges = new ArrayList<>(1024);
+        while(true) {
+            try {
+                exchanges.add(RecordedExchange.readFrom(data));
+            } catch (EOFException e) {
+                break;
+            }
+        }
+        return new TrafficRecording(exchanges);
+    }
+
+    public RecordedExchange find(String method, String target, int requestChecksum) {
+        Entry entry = byKey.get(RecordedExchange.key(method, target));
+        if(entry == null)
+            return null;
+
+        List<RecordedExchange> candidates = entry.exchanges;
+        if(requestChecksum != 0) {
+            for(RecordedExchange candidate: candidates) {
+                if(candidate.getRequestChecksum() == requestChecksum)
+                    return candidate;
+            }
+        }
+        return candidates.get(Math.floorMod(entry.next.getAndIncrement(), candidates.size()));
+    }
+
+    // ----- Accessors -----
+    public List<RecordedExchange> getExchanges() { return exchanges; }
+    public int size() { return exchanges.size(); }
+
+    private static class Entry {
+        private final List<RecordedExchange> exchanges = new ArrayList<>(4);
+        private final AtomicInteger next = new AtomicInteger();
+    }
+}
@@ -0,0 +1,31 @@
+package org.servantscode.client;
+
+public class TransportConfig {
+    private int maxConnections = 200;
+    private int maxConnectionsPerRoute = 50;
+    private int connectTimeoutMillis = 5000;
+    private int readTimeoutMillis = 30000;
+    private long idleEvictionMillis = 30000;
+    private long connectionTimeToLiveMillis = 300000;
+
+    public TransportConfig() {}
+
+    // ----- Accessors -----
+    public int getMaxConnections() { return maxConnections; }
+    public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+
+    public int getMaxConnectionsPerRoute() { return maxConnectionsPerRoute; }
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) { this.maxConnectionsPerRoute = maxConnectionsPerRoute; }
+
+    public int getConnectTimeoutMillis() { return connectTimeoutMillis; }
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) { this.connectTimeoutMillis = connectTimeoutMillis; }
+
+    public int getReadTimeoutMillis() { return readTimeoutMillis; }
+    public void setReadTimeoutMillis(int readTimeoutMillis) { this.readTimeoutMillis = readTimeoutMillis; }
+
+    public long getIdleEvictionMillis() { return idleEvictionMillis; }
+    public void setIdleEvictionMillis(long idleEvictionMillis) { this.idleEvictionMillis = idleEvictionMillis; }
+
+    public long getConnectionTimeToLiveMillis() { return connectionTimeToLiveMillis; }
+    public void setConnectionTimeToLiveMillis(long connectionTimeToLiveMillis) { this.connectionTimeToLiveMillis = connectionTimeToLiveMillis; }
+}
@@ -0,0 +1,32 @@
+package org.servantscode.client;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class TransportStats {
+    private final int leased;
+    private final int pending;
+    private final int available;
+    private final int max;
+    private final Map<String, TransportStats> routes;
+
+    /*package*/ TransportStats(int leased, int pending, int available, int max, Map<String, TransportStats> routes) {
+        this.leased = leased;
+        this.pending = pending;
+        this.available = available;
+        this.max = max;
+        this.routes = routes == null? Collections.emptyMap(): Collections.unmodifiableMap(routes);
+    }
+
+    // ----- Accessors -----
+    public int getLeased() { return leased; }
+    public int getPending() { return pending; }
+    public int getAvailable() { return available; }
+    public int getMax() { return max; }
+    public Map<String, TransportStats> getRoutes() { return routes; }
+
+    @Override
+    public String toString() {
+        return String.format("leased=%d pending=%d available=%d max=%d", leased, pending, available, max);
+    }
+}
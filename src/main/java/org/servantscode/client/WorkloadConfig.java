@@ -0,0 +1,71 @@
+package org.servantscode.client;
+
+/*
+ * Shape and pacing of a synthetic parish. Counts are per parish; the people, pledge and donation figures are
+ * per family.
+ */
+public class WorkloadConfig {
+    private int families = 200;
+    private int maxPeoplePerFamily = 5;
+    private int ministries = 20;
+    private int rooms = 15;
+    private int equipment = 30;
+    private int events = 150;
+    private int programs = 4;
+    private int sectionsPerProgram = 4;
+    private int sessionsPerSection = 10;
+    private int funds = 5;
+    private double pledgeRate = 0.6;
+    private int donationsPerFamily = 12;
+    private boolean batchDonations = true;
+    private int concurrency = 16;
+    private long seed = 1;
+
+    public WorkloadConfig() {}
+
+    // ----- Accessors -----
+    public int getFamilies() { return families; }
+    public void setFamilies(int families) { this.families = families; }
+
+    public int getMaxPeoplePerFamily() { return maxPeoplePerFamily; }
+    public void setMaxPeoplePerFamily(int maxPeoplePerFamily) { this.maxPeoplePerFamily = maxPeoplePerFamily; }
+
+    public int getMinistries() { return ministries; }
+    public void setMinistries(int ministries) { this.ministries = ministries; }
+
+    public int getRooms() { return rooms; }
+    public void setRooms(int rooms) { this.rooms = rooms; }
+
+    public int getEquipment() { return equipment; }
+    public void setEquipment(int equipment) { this.equipment = equipment; }
+
+    public int getEvents() { return events; }
+    public void setEvents(int events) { this.events = events; }
+
+    public int getPrograms() { return programs; }
+    public void setPrograms(int programs) { this.programs = programs; }
+
+    public int getSectionsPerProgram() { return sectionsPerProgram; }
+    public void setSectionsPerProgram(int sectionsPerProgram) { this.sectionsPerProgram = sectionsPerProgram; }
+
+    public int getSessionsPerSection() { return sessionsPerSection; }
+    public void setSessionsPerSection(int sessionsPerSection) { this.sessionsPerSection = sessionsPerSection; }
+
+    public int getFunds() { return funds; }
+    public void setFunds(int funds) { this.funds = funds; }
+
+    public double getPledgeRate() { return pledgeRate; }
+    public void setPledgeRate(double pledgeRate) { this.pledgeRate = pledgeRate; }
+
+    public int getDonationsPerFamily() { return donationsPerFamily; }
+    public void setDonationsPerFamily(int donationsPerFamily) { this.donationsPerFamily = donationsPerFamily; }
+
+    public boolean isBatchDonations() { return batchDonations; }
+    public void setBatchDonations(boolean batchDonations) { this.batchDonations = batchDonations; }
+
+    public int getConcurrency() { return concurrency; }
+    public void setConcurrency(int concurrency) { this.concurrency = concurrency; }
+
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+}
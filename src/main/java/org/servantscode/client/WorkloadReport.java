@@ -0,0 +1,55 @@
+package org.servantscode.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class WorkloadReport {
+    private final Map<String, ServiceLoad> services = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final long startedAt = System.currentTimeMillis();
+    private volatile long finishedAt;
+
+    public ServiceLoad service(String name) {
+        return services.computeIfAbsent(name, ServiceLoad::new);
+    }
+
+    /*package*/ void finish() {
+        finishedAt = System.currentTimeMillis();
+    }
+
+    public long getTotalCalls() {
+        return getServices().stream().mapToLong(ServiceLoad::getCalls).sum();
+    }
+
+    public long getTotalErrors() {
+        return getServices().stream().mapToLong(ServiceLoad::getErrors).sum();
+    }
+
+    public double getThroughput() {
+        long elapsed = getElapsedMillis();
+        return elapsed == 0? 0: getTotalCalls() * 1000.0 / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(1024);
+        out.append(String.format("calls=%d errors=%d elapsed=%dms throughput=%.1f/s%n",
+                getTotalCalls(), getTotalErrors(), getElapsedMillis(), getThroughput()));
+        for(ServiceLoad load: getServices())
+            out.append("  ").append(load).append(System.lineSeparator());
+        return out.toString();
+    }
+
+    // ----- Accessors -----
+    public List<ServiceLoad> getServices() {
+        synchronized (services) {
+            return new ArrayList<>(services.values());
+        }
+    }
+
+    public long getElapsedMillis() {
+        return (finishedAt == 0? System.currentTimeMillis(): finishedAt) - startedAt;
+    }
+}
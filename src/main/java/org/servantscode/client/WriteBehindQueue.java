@@ -0,0 +1,261 @@
+package org.servantscode.client;
+
+import org.servantscode.commons.Organization;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/*
+ * Bounded queue for fire-and-forget writes. Callers block only while the queue is full; a flusher thread drains
+ * it, groups what it finds by endpoint and organization and hands each group to the async executor, with at most
+ * `concurrency` groups in flight. Each write still runs under the organization and log context it was queued from.
+ * Writes that can never be sent (the executor rejects them, or close gives up waiting) go to the failure handler.
+ */
+public class WriteBehindQueue implements AutoCloseable {
+    private static final int MAX_GROUP = 32;
+    private static final long CLOSE_TIMEOUT_MILLIS = 30_000;
+
+    private final BlockingQueue<Write> queue;
+    private final Semaphore dispatchPermits;
+    private final Executor executor;
+    private final Thread flusher;
+
+    private final Object pendingLock = new Object();
+    private long pending = 0;
+    private boolean closed = false;
+    private volatile boolean stopped = false;
+    private volatile BiConsumer<String, Throwable> failureHandler = (endpoint, error) ->
+            ApiClientFactory.instance().events().failure("Write-behind to {} failed: {}", endpoint, error.getMessage());
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public WriteBehindQueue(int capacity, int concurrency, Executor executor) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.dispatchPermits = new Semaphore(concurrency);
+        this.executor = executor;
+        this.flusher = new Thread(this::drain, "sc-client-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public void submit(String endpoint, Runnable write) {
+        // Checked under the same lock close() takes, so a write is either refused or counted before close waits.
+        synchronized (pendingLock) {
+            if(closed)
+                throw new IllegalStateException("Write-behind queue is closed.");
+            pending++;
+        }
+
+        Write queued = new Write(endpoint, RequestContext.capture(), write);
+        boolean offered;
+        try {
+            do {
+                offered = queue.offer(queued, 100, TimeUnit.MILLISECONDS);
+            } while(!offered && !stopped);
+        } catch (InterruptedException e) {
+            done();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing write to " + endpoint, e);
+        }
+
+        // The flusher stopped while this caller waited for room. If its final sweep did not pick the write up, no
+        // one will send it.
+        if(!offered || (stopped && queue.remove(queued))) {
+            done();
+            throw new IllegalStateException("Write-behind queue closed before the write to " + endpoint + " was queued.");
+        }
+    }
+
+    // Waits for everything queued so far to be sent. Returns false on timeout.
+    public boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (pendingLock) {
+            while(pending > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if(remaining <= 0)
+                    return false;
+                try {
+                    pendingLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        close(CLOSE_TIMEOUT_MILLIS);
+    }
+
+    // Stops taking writes and waits up to the timeout for the queued ones to be sent. Writes still queued after that
+    // are reported to the failure handler. Returns false if it had to give up on any.
+    public boolean close(long timeoutMillis) {
+        synchronized (pendingLock) {
+            closed = true;
+        }
+        boolean drained = flush(timeoutMillis);
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return drained;
+    }
+
+    public void setFailureHandler(BiConsumer<String, Throwable> failureHandler) {
+        this.failureHandler = failureHandler;
+    }
+
+    // ----- Accessors -----
+    public int getQueueDepth() { return queue.size(); }
+    public long getCompleted() { return completed.sum(); }
+    public long getFailed() { return failed.sum(); }
+    public HistogramSnapshot getLatency() { return latency.snapshot(); }
+
+    public long getPending() {
+        synchronized (pendingLock) {
+            return pending;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("depth=%d pending=%d completed=%d failed=%d latency[%s]",
+                getQueueDepth(), getPending(), getCompleted(), getFailed(), getLatency());
+    }
+
+    // ----- Private -----
+    private void drain() {
+        List<Write> batch = new ArrayList<>(256);
+        while(!Thread.currentThread().isInterrupted()) {
+            try {
+                Write first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if(first == null)
+                    continue;
+
+                batch.add(first);
+                queue.drainTo(batch, 255);
+                List<List<Write>> groups = group(batch);
+                batch.clear();
+                dispatch(groups);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Only reached once close() has given up waiting. Submitters check the flag after queueing, so anything
+        // that lands after this sweep is failed by its own caller.
+        stopped = true;
+        List<Write> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        fail(abandoned, new IllegalStateException("Write-behind queue closed before the write was sent."));
+    }
+
+    private void dispatch(List<List<Write>> groups) throws InterruptedException {
+        for(int i = 0; i < groups.size(); i++) {
+            List<Write> group = groups.get(i);
+            try {
+                dispatchPermits.acquire();
+            } catch (InterruptedException e) {
+                for(List<Write> rest: groups.subList(i, groups.size()))
+                    fail(rest, new IllegalStateException("Write-behind queue closed before the write was sent."));
+                throw e;
+            }
+
+            try {
+                executor.execute(() -> send(group));
+            } catch (RuntimeException e) {
+                dispatchPermits.release();
+                fail(group, e);
+            }
+        }
+    }
+
+    private void fail(List<Write> writes, Throwable error) {
+        for(Write write: writes) {
+            failed.increment();
+            notifyFailure(write.endpoint, error);
+            done();
+        }
+    }
+
+    private static List<List<Write>> group(List<Write> batch) {
+        Map<String, List<Write>> byKey = new LinkedHashMap<>();
+        for(Write write: batch)
+            byKey.computeIfAbsent(write.groupKey(), k -> new ArrayList<>()).add(write);
+
+        List<List<Write>> groups = new ArrayList<>(byKey.size());
+        for(List<Write> writes: byKey.values()) {
+            for(int i = 0; i < writes.size(); i += MAX_GROUP)
+                groups.add(new ArrayList<>(writes.subList(i, Math.min(writes.size(), i + MAX_GROUP))));
+        }
+        return groups;
+    }
+
+    private void send(List<Write> group) {
+        try {
+            for(Write write: group) {
+                try {
+                    write.context.wrap(write.call).run();
+                    completed.increment();
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    notifyFailure(write.endpoint, e);
+                } finally {
+                    latency.recordNanos(System.nanoTime() - write.queuedAt);
+                    done();
+                }
+            }
+        } finally {
+            dispatchPermits.release();
+        }
+    }
+
+    private void notifyFailure(String endpoint, Throwable error) {
+        try {
+            failureHandler.accept(endpoint, error);
+        } catch (RuntimeException ignored) {
+            // A failing callback must not stop the remaining writes.
+        }
+    }
+
+    private void done() {
+        synchronized (pendingLock) {
+            if(--pending == 0)
+                pendingLock.notifyAll();
+        }
+    }
+
+    private static class Write {
+        private final String endpoint;
+        private final RequestContext context;
+        private final Runnable call;
+        private final long queuedAt = System.nanoTime();
+
+        private Write(String endpoint, RequestContext context, Runnable call) {
+            this.endpoint = endpoint;
+            this.context = context;
+            this.call = call;
+        }
+
+        private String groupKey() {
+            Organization org = context.getOrganization();
+            return org == null? endpoint: endpoint + "#" + org.getHostName();
+        }
+    }
+}